@@ -0,0 +1,135 @@
+package words;
+import java.io.*;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import words.environment.Environment;
+
+/**
+ * Runs many Words programs at once on a shared pool of threads.  Each program runs headless in a world of its own, with its own
+ * options, environment, frame counter and output files, so that what a world logs is the same as when its program is run alone.
+ */
+public class BatchRunner {
+	private Options options;
+	private int threads;
+
+	/**
+	 * The outcome of running one program.
+	 */
+	public static class Result {
+		public final File program;
+		public final FrameStatistics statistics;	// Null if the world failed
+		public final boolean exited;				// True if the world was ended by an exit statement
+		public final String error;					// Why the world failed, if it did
+
+		Result(File program, FrameStatistics statistics, boolean exited, String error) {
+			this.program = program;
+			this.statistics = statistics;
+			this.exited = exited;
+			this.error = error;
+		}
+
+		public boolean failed() {
+			return statistics == null;
+		}
+	}
+
+	/**
+	 * Creates a runner whose worlds each start from a copy of the given options, which must limit the number of frames.
+	 */
+	public BatchRunner(Options options, int threads) {
+		if (!options.frameLimitEnabled)
+			throw new IllegalArgumentException("A batch run needs a frame limit");
+
+		this.options = options;
+		this.threads = Math.max(threads, 1);
+	}
+
+	/**
+	 * Runs each program in a world of its own and returns the results in the order of the programs.  The frames a world logs are
+	 * written to a file named after its program with ".log" appended in the output directory, and its errors to one with ".err".
+	 * Throws IllegalArgumentException if two programs have the same name, since their worlds would write to the same files.
+	 */
+	public List<Result> run(List<File> programs, File outputDirectory) throws InterruptedException {
+		HashSet<String> names = new HashSet<String>();
+		ArrayList<Callable<Result>> worlds = new ArrayList<Callable<Result>>();
+		for (File program : programs) {
+			if (!names.add(program.getName()))
+				throw new IllegalArgumentException("More than one program is named " + program.getName());
+			worlds.add(() -> runWorld(program, outputDirectory));
+		}
+
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Result>> futures = pool.invokeAll(worlds);
+			ArrayList<Result> results = new ArrayList<Result>();
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					results.add(new Result(programs.get(i), null, false, e.getCause().toString()));
+				}
+			}
+			return results;
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Runs one program to its frame limit on the calling thread.  A program with syntax errors is not run, and its world fails
+	 * with the errors written to its ".err" file.
+	 */
+	public Result runWorld(File program, File outputDirectory) {
+		Options worldOptions = options.copy();
+		worldOptions.gui = false;
+		worldOptions.printToConsole = false;
+		worldOptions.timeToWait = -1;
+
+		File log = new File(outputDirectory, program.getName() + ".log");
+		File errors = new File(outputDirectory, program.getName() + ".err");
+		try (BufferedReader reader = new BufferedReader(new FileReader(program));
+				PrintStream out = new PrintStream(new BufferedOutputStream(new FileOutputStream(log)));
+				PrintStream err = new PrintStream(new BufferedOutputStream(new FileOutputStream(errors)))) {
+			Words parser = new Words(reader, worldOptions, err);
+			parser.yyparse();
+			if (parser.numErrors > 0)
+				return new Result(program, null, false, parser.numErrors + " syntax error(s), see " + errors);
+
+			Environment environment = new Environment(worldOptions);
+			environment.setConsole(new Console(worldOptions, out, err));
+			FrameLoop frameLoop = new FrameLoop(environment);
+			if (parser.root != null)
+				frameLoop.enqueueAST(parser.root);
+			frameLoop.run();
+
+			return new Result(program, frameLoop.getStatistics(), frameLoop.hasExited(), null);
+		} catch (IOException e) {
+			return new Result(program, null, false, "Unable to read file " + program);
+		}
+	}
+
+	/**
+	 * Returns a summary of the combined throughput of a batch started at a given time, given the current time in nanoseconds.
+	 */
+	public static String report(List<Result> results, long startTime, long now) {
+		FrameStatistics total = new FrameStatistics(startTime);
+		int failed = 0;
+		for (Result result : results) {
+			if (result.failed())
+				failed++;
+			else
+				total.add(result.statistics);
+		}
+
+		double seconds = Math.max(now - startTime, 1) / 1e9;
+		return String.format("%d worlds (%d failed), %.1f worlds/s; ", results.size(), failed, results.size() / seconds)
+				+ total.report(now);
+	}
+}
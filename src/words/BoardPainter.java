@@ -0,0 +1,275 @@
+package words;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.HashMap;
+import java.util.Random;
+
+import words.environment.Position;
+
+/**
+ * Draws the board of a world: a grid of cells with the objects in each, or a heatmap of how many objects there are when
+ * zoomed out too far to show them.  Used by the GUI and by the offscreen recorder, so that both draw frames alike.  A painter
+ * keeps caches between frames and must only be used by one thread.
+ */
+class BoardPainter {
+	static final int topPadding = 40;	// Padding at the top of the window before the board in pixels
+
+	static final int labelPadding = 4;	// Padding from label to grid cell
+
+	static final Font fLabel = new Font("SansSerif", Font.BOLD, 16);
+	static final Font fObj = new Font("SansSerif", Font.BOLD, 16);
+	static final Font fClass = new Font("SansSerif", Font.PLAIN, 8);
+	static final Font fMsg = new Font("SansSerif", Font.PLAIN, 10);
+	static final double lineSpacing = 0.75;
+	static final int cellPadding = 4;
+	static final int objOverlapSpacing = 4;
+	static final int maxOverlapObjects = 6;
+	static final int maxCachedColors = 4096;	// The cache of object colors is emptied when it grows past this
+	static final Color gridColor = new Color(128, 128, 128);
+	static final Color boardColor = new Color(255, 255, 255);
+	static final int[] heatmapPalette = createHeatmapPalette();
+
+	int width;							// Width of the area drawn in, in pixels
+	int boardSize; 						// Dimensions (square) of the board in pixels
+	int numCells;						// Number of rows (columns) in the board (must be odd)
+	int xCenterCell, yCenterCell;		// The board coordinates of the cell depicted in the center
+
+	int cellSize;						// Dimensions of a cell in pixels
+	int x1, y1, x2, y2;					// Boundaries of the board in pixels
+	int cx, cy;							// Center of the board in pixels
+	int fontCells;						// The number of cells the derived fonts were sized for
+	Font objFont, classFont, msgFont;
+
+	HashMap<String, Color> colors = new HashMap<String, Color>();	// The color of each object, by name and class
+	Random colorGenerator = new Random();	// Reseeded for each object, so that an object keeps its color
+	BufferedImage heatmap;				// Reused from frame to frame while the density map keeps its size
+
+	BoardPainter(int width, int boardSize) {
+		this.width = width;
+		this.boardSize = boardSize;
+	}
+
+	/**
+	 * Sets the part of the world to draw, and computes where the board and its cells are drawn.
+	 */
+	void setView(int numCells, int xCenterCell, int yCenterCell) {
+		this.numCells = numCells;
+		this.xCenterCell = xCenterCell;
+		this.yCenterCell = yCenterCell;
+
+		x1 = (width - boardSize)/2;
+		y1 = topPadding;
+		x2 = x1 + boardSize;
+		y2 = y1 + boardSize;
+		cx = (x1 + x2)/2;
+		cy = (y1 + y2)/2;
+		cellSize = (x2 - x1) / numCells;
+
+		if (fontCells != numCells) {
+			float scale = (float) GUI.initNumCells / (float) numCells;
+			objFont = fObj.deriveFont(scale * fObj.getSize());
+			classFont = fClass.deriveFont(scale * fClass.getSize());
+			msgFont = fMsg.deriveFont(scale * fMsg.getSize());
+			fontCells = numCells;
+		}
+	}
+
+	/**
+	 * Returns the area to repaint when a cell in view changes: the cell and its neighbors on either side, which messages wider
+	 * than a cell may spill into.  Returns null if the cell is out of view.
+	 */
+	Rectangle changedCellBounds(Position p) {
+		int extent = (numCells-1)/2;
+		int i = p.x - xCenterCell;
+		int j = p.y - yCenterCell;
+		if (Math.abs(i) > extent || Math.abs(j) > extent)
+			return null;
+		return new Rectangle(cx + (i - 1)*cellSize - cellSize/2, cy - j*cellSize - cellSize/2, 3*cellSize + 1, cellSize + 1);
+	}
+
+	/**
+	 * Draws a string centered at given coordinates.  Splits newlines.
+	 * Adapted from http://www.java2s.com/Tutorial/Java/0261__2D-Graphics/Centertext.htm
+	 *
+	 * @param g2 The Graphics2D context in which to draw
+	 * @param string The text that should be drawn
+	 * @param xCenter The x pixel position where the string should be centered
+	 * @param yCenter The y pixel position where the string should be centered
+	 * @param font The font the string should be drawn in
+	 * @param color The color the string should be drawn in
+	 */
+	private void drawCenteredString(Graphics2D g2, String string, int x, int y, Font font, Color color) {
+		g2.setFont(font);
+		g2.setPaint(color);
+
+		FontMetrics fm = g2.getFontMetrics();
+
+		if (string.indexOf('\n') < 0) {
+			int h = fm.getAscent() + fm.getDescent();
+			g2.drawString(string, x - fm.stringWidth(string)/2, y - h/2 + fm.getAscent());
+			return;
+		}
+
+		int numLines = string.split("\n", -1).length;
+
+		int num = 1;
+		for (String line : string.split("\n")) {
+			int w = fm.stringWidth(line);
+			int h = fm.getAscent() + fm.getDescent();
+
+			g2.drawString(line, x - w/2, y + (int) (((double) num - ((double) numLines + 1)/2)*h*lineSpacing) - h/2 + fm.getAscent());
+			num++;
+		}
+	}
+
+	/**
+	 * Renders a given cell from the grid at given pixel coordinates.
+	 *
+	 * @param g2 The Graphics2D context in which to draw
+	 * @param frame The frame being drawn
+	 * @param xCenter The x pixel position where the cell should be centered
+	 * @param yCenter The y pixel position where the cell should be centered
+	 * @param p The position in the grid that should be rendered
+	 */
+
+	private void renderCell(Graphics2D g2, FrameSnapshot frame, int xCenter, int yCenter, Position p) {
+		float scale = (float) GUI.initNumCells / (float) numCells;
+
+		g2.setPaint(gridColor);
+		g2.setStroke(new BasicStroke());
+
+		g2.drawRect(xCenter - cellSize/2, yCenter - cellSize/2, cellSize, cellSize);
+
+		int first = frame.firstAt(p.x, p.y);
+		int count = frame.countAt(first, p.x, p.y);
+		if (count > 0) {
+			int numToDisplay = count < maxOverlapObjects ? count : maxOverlapObjects;
+
+			// Simple rendering of an object
+			int fillSize = cellSize - (int) (cellPadding*scale) - objOverlapSpacing*(numToDisplay - 1);
+
+			for (int num = 1; num <= numToDisplay; num++) {
+				int r = first + num - 1;
+				String objName = frame.getObjectName(r);
+				String className = frame.getClassName(r);
+				String message = frame.getMessage(r);
+
+				int x = xCenter + (int) (((double) num - ((double) numToDisplay + 1) / 2) * objOverlapSpacing * scale);
+				int y = yCenter + (int) (((double) num - ((double) numToDisplay + 1) / 2) * objOverlapSpacing * scale);
+
+				g2.setPaint(colorOf(objName, className));
+				g2.fillRect(x - fillSize/2, y - fillSize/2, fillSize, fillSize);
+				drawCenteredString(g2, objName, x, y - fillSize/3, objFont, Color.WHITE);
+				drawCenteredString(g2, "(" + className + ")", x, y - fillSize/8, classFont, Color.LIGHT_GRAY);
+
+				if (message != null)
+					drawCenteredString(g2, message, x, y + fillSize/6, msgFont, Color.WHITE);
+			}
+		}
+	}
+
+	/**
+	 * Paints the cells of a frame and the axis labels that fall within a clipping rectangle.
+	 */
+	void paintFrame(Graphics2D g2, FrameSnapshot frame, Rectangle clip) {
+		// Background region
+		g2.setPaint(boardColor);
+		g2.fillRect(x1, y1, x2-x1, y2-y1);
+
+		int extent = (numCells-1)/2;
+
+		// Draw each cell within the region being repainted
+		for (int i = -extent; i <= extent; i++)
+			for (int j = -extent; j <= extent; j++)
+				if (clip.intersects(cx + i*cellSize - cellSize/2, cy - j*cellSize - cellSize/2, cellSize + 1, cellSize + 1))
+					renderCell(g2, frame, cx + i*cellSize, cy - j*cellSize, new Position(xCenterCell + i, yCenterCell + j));
+
+		// Draw the x-axis labels
+		if (clip.y < y1)
+			for (int i = -extent; i <= extent; i++)
+				drawCenteredString(g2, Integer.toString(xCenterCell + i), cx + i*cellSize, y1 - fLabel.getSize()/2 - labelPadding, fLabel, Color.BLACK);
+
+		// Draw the y-axis labels
+		if (clip.x < x1)
+			for (int j = -extent; j <= extent; j++)
+				drawCenteredString(g2, Integer.toString(yCenterCell + j), x1 - fLabel.getSize()/2 - labelPadding, cy - j*cellSize, fLabel, Color.BLACK);
+	}
+
+	/**
+	 * Paints the board as a heatmap of the number of objects in each tile, writing the pixels of the image directly.  Paints an
+	 * empty board if there is no map yet.
+	 */
+	void paintDensity(Graphics2D g2, DensityMap map) {
+		g2.setPaint(boardColor);
+		g2.fillRect(x1, y1, x2-x1, y2-y1);
+
+		if (map == null)
+			return;
+
+		int width = map.getWidth();
+		int height = map.getHeight();
+		if (heatmap == null || heatmap.getWidth() != width || heatmap.getHeight() != height)
+			heatmap = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+
+		int[] pixels = ((DataBufferInt) heatmap.getRaster().getDataBuffer()).getData();
+		double shade = (heatmapPalette.length - 1) / Math.log1p(Math.max(map.getMaxCount(), 1));
+		for (int row = 0; row < height; row++) {
+			int offset = (height - 1 - row) * width;		// The image runs top to bottom, the board bottom to top
+			for (int column = 0; column < width; column++) {
+				int count = map.getCount(column, row);
+				pixels[offset + column] = count == 0 ? 0xFFFFFF : heatmapPalette[(int) (Math.log1p(count) * shade)];
+			}
+		}
+
+		// The last tiles may reach past the board
+		double cellPixels = (double) boardSize / numCells;
+		int imageWidth = (int) Math.round(width * map.getTileSize() * cellPixels);
+		int imageHeight = (int) Math.round(height * map.getTileSize() * cellPixels);
+		Shape clip = g2.getClip();
+		g2.clipRect(x1, y1, x2-x1, y2-y1);
+		g2.drawImage(heatmap, x1, y2 - imageHeight, imageWidth, imageHeight, null);
+		g2.setClip(clip);
+
+		g2.setPaint(gridColor);
+		g2.drawRect(x1, y1, x2-x1, y2-y1);
+
+		// Label the edges of the board only
+		Viewport view = map.getViewport();
+		int labelY = y1 - fLabel.getSize()/2 - labelPadding;
+		int labelX = x1 - fLabel.getSize()/2 - labelPadding;
+		drawCenteredString(g2, Integer.toString(view.getMinX()), x1, labelY, fLabel, Color.BLACK);
+		drawCenteredString(g2, Integer.toString(view.getMaxX()), x2, labelY, fLabel, Color.BLACK);
+		drawCenteredString(g2, "Up to " + map.getMaxCount() + " objects per " + map.getTileSize() + "x" + map.getTileSize() + " tile",
+				cx, labelY, fMsg, Color.BLACK);
+		drawCenteredString(g2, Integer.toString(view.getMaxY()), labelX, y1, fLabel, Color.BLACK);
+		drawCenteredString(g2, Integer.toString(view.getMinY()), labelX, y2, fLabel, Color.BLACK);
+	}
+
+	/**
+	 * Returns the color of an object, which depends only on its name and class.
+	 */
+	private Color colorOf(String objName, String className) {
+		String key = objName + className;
+		Color color = colors.get(key);
+		if (color == null) {
+			if (colors.size() >= maxCachedColors)
+				colors.clear();
+
+			colorGenerator.setSeed(key.hashCode());
+			color = new Color(colorGenerator.nextInt(128), colorGenerator.nextInt(128), colorGenerator.nextInt(128));
+			colors.put(key, color);
+		}
+		return color;
+	}
+
+	private static int[] createHeatmapPalette() {
+		// From pale yellow for a few objects to dark red for the most crowded tiles
+		int[] palette = new int[256];
+		for (int i = 0; i < palette.length; i++) {
+			float t = (float) i / (palette.length - 1);
+			palette[i] = Color.HSBtoRGB(0.16f * (1 - t), 0.25f + 0.75f * t, 1 - 0.45f * t) & 0xFFFFFF;
+		}
+		return palette;
+	}
+}
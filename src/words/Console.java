@@ -1,16 +1,57 @@
 package words;
 
+import java.io.PrintStream;
+
 /**
- * Methods to display the REPL console.
+ * Methods to display the REPL console, and the streams a world writes its output and errors to.
  */
 public class Console {
-	public static void showPrompt() {
-		if (Options.PRINT_TO_CONSOLE)
-			System.out.print("> ");
+	private Options options;
+	private PrintStream out;
+	private PrintStream err;
+
+	/**
+	 * Creates a console that writes to the standard streams.
+	 */
+	public Console(Options options) {
+		this(options, System.out, System.err);
+	}
+
+	public Console(Options options, PrintStream out, PrintStream err) {
+		this.options = options;
+		this.out = out;
+		this.err = err;
 	}
-	
-	public static void showPromptMore() {
-		if (Options.PRINT_TO_CONSOLE)
-			System.err.printf("... ");
+
+	public void showPrompt() {
+		if (options.printToConsole)
+			out.print("> ");
+	}
+
+	public void showPromptMore() {
+		if (options.printToConsole)
+			err.printf("... ");
+	}
+
+	/**
+	 * Reports an error on the error stream, one line at a time, and prompts for the next statement.
+	 */
+	public void reportError(Object... lines) {
+		err.println("\r");
+		for (Object line : lines) {
+			err.println(line);
+		}
+		showPrompt();
+	}
+
+	/**
+	 * Returns the stream that frames are logged to.
+	 */
+	public PrintStream getOutput() {
+		return out;
+	}
+
+	public PrintStream getErrorOutput() {
+		return err;
 	}
 }
@@ -0,0 +1,106 @@
+package words;
+import java.util.List;
+
+import words.environment.Environment;
+import words.environment.Position;
+import words.environment.SpatialIndex;
+import words.environment.WordsObject;
+
+/**
+ * An immutable count of the objects in each tile of a viewport at the end of a frame, for showing a large part of a world
+ * when individual objects would be too small to draw.  A tile is a square of cells, the first one at the viewport's minimum x
+ * and y.
+ */
+public final class DensityMap {
+	private final int frame;
+	private final Viewport viewport;
+	private final int tileSize;			// The width and height of a tile in cells
+	private final int width;			// The number of tiles across the viewport
+	private final int height;
+	private final int[] counts;			// Row by row, starting at the minimum y
+	private final int maxCount;
+
+	private DensityMap(int frame, Viewport viewport, int tileSize, int[] counts, int width, int height) {
+		this.frame = frame;
+		this.viewport = viewport;
+		this.tileSize = tileSize;
+		this.width = width;
+		this.height = height;
+		this.counts = counts;
+
+		int max = 0;
+		for (int count : counts) {
+			max = Math.max(max, count);
+		}
+		this.maxCount = max;
+	}
+
+	/**
+	 * Counts the objects of a world in each tile of a viewport.  Whichever is smaller is walked: the objects of the world, or
+	 * the cells of the viewport, which are looked up in the spatial index.
+	 */
+	public static DensityMap capture(int frame, Environment environment, Viewport viewport, int tileSize) {
+		int cellsAcross = viewport.getMaxX() - viewport.getMinX() + 1;
+		int cellsDown = viewport.getMaxY() - viewport.getMinY() + 1;
+		int width = (cellsAcross + tileSize - 1) / tileSize;
+		int height = (cellsDown + tileSize - 1) / tileSize;
+		int[] counts = new int[width * height];
+
+		if ((long) cellsAcross * cellsDown > environment.getObjects().size()) {
+			for (WordsObject object : environment.getObjects()) {
+				Position position = object.getCurrentPosition();
+				if (viewport.contains(position.x, position.y))
+					counts[tileIndex(viewport, tileSize, width, position.x, position.y)]++;
+			}
+		} else {
+			SpatialIndex spatialIndex = environment.getSpatialIndex();
+			for (int x = viewport.getMinX(); x <= viewport.getMaxX(); x++) {
+				for (int y = viewport.getMinY(); y <= viewport.getMaxY(); y++) {
+					List<WordsObject> cell = spatialIndex.getObjectsAt(x, y);
+					if (!cell.isEmpty())
+						counts[tileIndex(viewport, tileSize, width, x, y)] += cell.size();
+				}
+			}
+		}
+
+		return new DensityMap(frame, viewport, tileSize, counts, width, height);
+	}
+
+	private static int tileIndex(Viewport viewport, int tileSize, int width, int x, int y) {
+		return ((y - viewport.getMinY()) / tileSize) * width + (x - viewport.getMinX()) / tileSize;
+	}
+
+	/**
+	 * Returns the number of objects in a tile, given its column and row counted from the viewport's minimum x and y.
+	 */
+	public int getCount(int column, int row) {
+		return counts[row * width + column];
+	}
+
+	/**
+	 * Returns the largest number of objects in any tile.
+	 */
+	public int getMaxCount() {
+		return maxCount;
+	}
+
+	public int getFrame() {
+		return frame;
+	}
+
+	public Viewport getViewport() {
+		return viewport;
+	}
+
+	public int getTileSize() {
+		return tileSize;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+}
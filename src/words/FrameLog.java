@@ -1,85 +1,148 @@
 package words;
-import java.util.*;
+import java.io.PrintStream;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
 
+import words.environment.Environment;
 import words.environment.Position;
+import words.environment.SpatialIndex;
+import words.environment.WordsObject;
 
+/**
+ * Writes the text log of a frame, as used by the system tests: the cells that hold objects, in the lexicographic order of their
+ * "x,y" labels, each followed by its objects in the lexicographic order of their lines.
+ *
+ * A log is kept by the frame loop and reused from frame to frame.  Cells are found by sorting packed primitive coordinates and
+ * ordered by primitive keys that sort like their labels, so that no strings are built to sort them.  Each frame is written to
+ * the output in one piece.
+ */
 public class FrameLog {
-	HashMap<String, LinkedList<RenderData>> content;
+	private static final String LINE_SEPARATOR = System.lineSeparator();
+	private static final Comparator<Cell> BY_LABEL = (a, b) -> a.xLabelKey != b.xLabelKey
+			? Long.compare(a.xLabelKey, b.xLabelKey) : Long.compare(a.yLabelKey, b.yLabelKey);
+
+	private long[] keys = new long[64];			// The packed cell of each object
+	private Cell[] cells = new Cell[64];		// The distinct cells, reused along with their keys
+	private String[] lines = new String[8];		// The lines of a cell with several objects, to be sorted
+	private StringBuilder text = new StringBuilder();
+	private char[] digits = new char[11];
 
 	/**
-	 * A structure to hold rendering information about a single Words object.
+	 * An occupied cell.
 	 */
-	private class RenderData {
-		public String className;
-		public String objName;
-		public String message;
-
-		public RenderData(String className, String objName, String message) {
-			this.className = className;
-			this.objName = objName;
-			this.message = message;
-		}
+	private static class Cell {
+		int x, y;
+		long xLabelKey, yLabelKey;		// Compare like the decimal strings of x and y
+	}
+
+	/**
+	 * Writes the log of a frame of an environment to a stream.
+	 */
+	public void log(PrintStream out, int frame, Environment environment) {
+		text.setLength(0);
+		text.append("frame #: ").append(frame).append(LINE_SEPARATOR);
+
+		int numCells = findCells(environment);
+		Arrays.sort(cells, 0, numCells, BY_LABEL);
 
-		@Override
-		public String toString() {
-			return "<" + className + ">" + " " + objName + (message != null ? (" \"" + message + "\"") : "");
+		SpatialIndex spatialIndex = environment.getSpatialIndex();
+		for (int i = 0; i < numCells; i++) {
+			Cell cell = cells[i];
+			text.append('(').append(cell.x).append(',').append(cell.y).append("):").append(LINE_SEPARATOR);
+			logObjects(spatialIndex.getObjectsAt(cell.x, cell.y));
 		}
+
+		out.print(text);
 	}
 
 	/**
-	 * Convert a position into a string suitable to serve as a hash key.
-	 *
-	 * @return a string representing the coordinate
+	 * Fills the start of the array of cells with the distinct cells holding objects and returns their number.
 	 */
-	private String positionToKey(Position p) {
-		return Integer.toString(p.x) + "," + Integer.toString(p.y);
-	}
+	private int findCells(Environment environment) {
+		int numObjects = environment.getObjects().size();
+		if (keys.length < numObjects)
+			keys = new long[Math.max(numObjects, 2 * keys.length)];
 
-	private void logCell(String key) {
-		LinkedList<RenderData> list = content.get(key);
-		if (list != null) {
-			System.out.println("(" + key + "):");
-			ArrayList<String> renderDataStr = new ArrayList<String>();
-			for (RenderData r : list) {
-				renderDataStr.add(r.toString());
-			}
-			Collections.sort(renderDataStr);
-			for (int i = 0; i < renderDataStr.size(); ++i)
-				System.out.println(renderDataStr.get(i));
+		int n = 0;
+		for (WordsObject object : environment.getObjects()) {
+			Position position = object.getCurrentPosition();
+			keys[n++] = SpatialIndex.key(position.x, position.y);
 		}
-	}
+		Arrays.sort(keys, 0, n);
+
+		int numCells = 0;
+		for (int i = 0; i < n; i++) {
+			if (i > 0 && keys[i] == keys[i - 1])
+				continue;
+
+			if (numCells == cells.length)
+				cells = Arrays.copyOf(cells, 2 * cells.length);
+			if (cells[numCells] == null)
+				cells[numCells] = new Cell();
 
-	public FrameLog() {
-		content = new HashMap<String, LinkedList<RenderData>>();
+			Cell cell = cells[numCells++];
+			cell.x = (int) (keys[i] >> 32);
+			cell.y = (int) keys[i];
+			cell.xLabelKey = labelKey(cell.x);
+			cell.yLabelKey = labelKey(cell.y);
+		}
+		return numCells;
 	}
 
 	/**
-	 * Adds an object to the log at a given position.
-	 *
-	 * @param p The position of the object
-	 * @param className The name of the class of this object
-	 * @param objName The name of the object
-	 * @param message The message that the object should say.  May be null.
+	 * Returns a key that orders integers like their decimal strings.  Each character of the string is a digit of the key in base
+	 * 12, with '-' and '0' to '9' above the padding after the end of the string, so that a string sorts before any it is a prefix of.
 	 */
-	public void add(Position p, String className, String objName, String message) {
-		String key = positionToKey(p);
-		LinkedList<RenderData> list = content.get(key);
+	private long labelKey(int value) {
+		int length = 0;
+		long magnitude = Math.abs((long) value);
+		do {
+			digits[length++] = (char) ('0' + magnitude % 10);
+			magnitude /= 10;
+		} while (magnitude > 0);
+		if (value < 0)
+			digits[length++] = '-';
+
+		long key = 0;
+		for (int i = 0; i < digits.length; i++) {
+			int code = 0;
+			if (i < length) {
+				char c = digits[length - 1 - i];
+				code = c == '-' ? 1 : c - '0' + 2;
+			}
+			key = key * 12 + code;
+		}
+		return key;
+	}
 
-		if (list == null) {
-			list = new LinkedList<RenderData>();
-			content.put(key, list);
+	private void logObjects(List<WordsObject> objects) {
+		if (objects.size() == 1) {
+			appendLine(objects.get(0));
+			return;
 		}
 
-		list.add(new RenderData(className, objName, message));
+		// Only cells with several objects need their lines built to be sorted
+		if (lines.length < objects.size())
+			lines = new String[Math.max(objects.size(), 2 * lines.length)];
+		int mark = text.length();
+		for (int i = 0; i < objects.size(); i++) {
+			appendLine(objects.get(i));
+			lines[i] = text.substring(mark);
+			text.setLength(mark);
+		}
+		Arrays.sort(lines, 0, objects.size());
+		for (int i = 0; i < objects.size(); i++) {
+			text.append(lines[i]);
+			lines[i] = null;
+		}
 	}
 
-        /**
-         * Output logs of frameloop run.
-         */
-	public void log() {
-                SortedSet<String> keys = new TreeSet<String>(content.keySet());
-                for (String key : keys) {
-                        logCell(key);
-                }
+	private void appendLine(WordsObject object) {
+		text.append('<').append(object.getClassName()).append("> ").append(object.getObjectName());
+		String message = object.getCurrentMessage();
+		if (message != null)
+			text.append(" \"").append(message).append('"');
+		text.append(LINE_SEPARATOR);
 	}
 }
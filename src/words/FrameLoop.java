@@ -1,26 +1,43 @@
 package words;
+import java.util.concurrent.ForkJoinPool;
 import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.RecursiveAction;
+import java.util.ArrayList;
 import java.util.Iterator;
 
 import words.ast.AST;
+import words.ast.Resolver;
 import words.environment.*;
+import words.exceptions.WordsExitException;
 import words.exceptions.WordsProgramException;
 import words.exceptions.WordsRuntimeException;
 
+/**
+ * Runs the frames of one world.  Everything a world needs, from its options and frame counter to where its output goes and what
+ * happens when it exits, belongs to its frame loop and environment, so that several worlds can run at once.
+ */
 public class FrameLoop extends Thread {
-	private static int numFrames = 1;
+	private int numFrames = 1;
 
 	private LinkedBlockingDeque<AST> ASTQueue;
 	private Environment environment;
+	private Options options;
 	private GUI GUI;
+	private FrameStatistics statistics = new FrameStatistics();
+	private final Object frameLock = new Object();	// Held while a frame runs, so that the GUI can be sent a frame between frames
+	private boolean exited;
+	private Runnable exitHandler;		// Run once the world has been ended by an exit statement
+	private FrameRecorder recorder;		// Writes frames as images, if the run is being recorded
+	private final FrameLog frameLog = new FrameLog();	// Reused for each frame logged
 
 	/**
 	 * Initialize the Frame Loop with a GUI -- generally used for a real run of the program
 	 */
-	public FrameLoop(GUI GUI) {
-		this.environment = new Environment();
-		this.ASTQueue = new LinkedBlockingDeque<AST>();
+	public FrameLoop(GUI GUI, Options options) {
+		this(new Environment(options));
 		this.GUI = GUI;
+		if (GUI != null)
+			GUI.setViewportListener(() -> ForkJoinPool.commonPool().execute(this::publishLastFrame));
 	}
 
 	/**
@@ -28,39 +45,132 @@ public class FrameLoop extends Thread {
 	 */
 	public FrameLoop(Environment environment) {
 		this.environment = environment;
+		this.options = environment.getOptions();
 		this.ASTQueue = new LinkedBlockingDeque<AST>();
 		this.GUI = null;
 	}
 
+	/**
+	 * Sets what to do once the world has been ended by an exit statement, such as ending the process.
+	 */
+	public void setExitHandler(Runnable exitHandler) {
+		this.exitHandler = exitHandler;
+	}
+
+	/**
+	 * Records frames with a recorder, which the frame loop closes once it has run its last frame.
+	 */
+	public void setRecorder(FrameRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Returns true if the world was ended by an exit statement.
+	 */
+	public boolean hasExited() {
+		return exited;
+	}
+
+	public Environment getEnvironment() {
+		return environment;
+	}
+
 	public void enqueueAST(AST ast) {
+		// Lay out the scopes of the statement before it is compiled
+		if (options.compile) {
+			Resolver.resolve(ast);
+		}
 		ASTQueue.add(ast);
 	}
 
 
 	public void run() {
+		Console console = environment.getConsole();
+		statistics.start(System.nanoTime());
+		FrameScheduler scheduler = null;
+		if (options.timeToWait > 0) {
+			scheduler = FrameScheduler.fromMillis(options.timeToWait, options.maxCatchUpFrames);
+			scheduler.start(System.nanoTime());
+		}
+		
 		boolean finished = false;
-		while (!finished) {
-			if (Options.TIME_TO_WAIT > 0) {
-				long timeToSleep = Options.TIME_TO_WAIT;
-				long start, end, slept;
-				while (timeToSleep > 0) {
-					start = System.currentTimeMillis();
-					try {
-						Thread.sleep(timeToSleep);
-						break;
-					} catch (InterruptedException e) {
-						//work out how much more time to sleep for
-						end = System.currentTimeMillis();
-						slept = end-start;
-						timeToSleep -= slept;
-			        	}
+		try {
+			while (!finished) {
+				if (scheduler != null) {
+					scheduler.awaitNextFrame();
+					if (options.frameStatsInterval > 0 && numFrames % options.frameStatsInterval == 0)
+						console.getErrorOutput().println("\rFrame rate: " + scheduler.report());
 				}
+				finished = executeSingleFrame();
 			}
-			finished = executeSingleFrame();
+		} catch (WordsExitException e) {
+			exited = true;
+		}
+		
+		if (options.turbo)
+			console.getErrorOutput().println(statistics.report(System.nanoTime()));
+		console.getOutput().flush();
+		
+		if (recorder != null)
+			closeRecorder(console);
+		
+		if (exited && exitHandler != null)
+			exitHandler.run();
+	}
+	
+	/**
+	 * Waits for the recorded frames to be written, and reports any that could not be.
+	 */
+	private void closeRecorder(Console console) {
+		try {
+			recorder.close();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if (recorder.getError() != null)
+			console.getErrorOutput().println("Unable to record frames: " + recorder.getError());
+		if (recorder.getDropped() > 0)
+			console.getErrorOutput().println("Recorded " + recorder.getWritten() + " frames; " + recorder.getDropped()
+					+ " frames were dropped because encoding fell behind");
+	}
+	
+	/**
+	 * Returns the counts of the work done by the frames executed so far.
+	 */
+	public FrameStatistics getStatistics() {
+		return statistics;
+	}
+
+	/**
+	 * Hands the GUI the objects in its viewport at the end of a frame, or only how many there are in each part of the viewport
+	 * if it is zoomed out too far to show each one.
+	 */
+	private void publishFrame(int frame) {
+		Viewport viewport = GUI.getViewport();
+		int tileSize = words.GUI.densityTileSize(viewport);
+		if (tileSize > 0)
+			GUI.publish(DensityMap.capture(frame, environment, viewport, tileSize));
+		else
+			GUI.publish(FrameSnapshot.capture(frame, environment, viewport));
+	}
+
+	/**
+	 * Publishes the last frame again, for a viewport that has changed since, without waiting for the next frame.  Runs on a
+	 * thread of its own, between frames.
+	 */
+	private void publishLastFrame() {
+		synchronized (frameLock) {
+			publishFrame(numFrames - 1);
 		}
 	}
 
 	private boolean executeSingleFrame() {
+		synchronized (frameLock) {
+			return executeFrame();
+		}
+	}
+
+	private boolean executeFrame() {
 		boolean finished = false;
 		
 		// Phase 0: Store each object's position at the beginning of the turn
@@ -72,63 +182,75 @@ public class FrameLoop extends Thread {
 		while (!ASTQueue.isEmpty()) {
 			AST ast = ASTQueue.pop();
 			try {
-				ast.eval(environment);
+				ast.execute(environment);
 			} catch (WordsRuntimeException e) {
 				// Note: this should only be caught in junit tests; 
 				// otherwise, it should be caught earlier at the statement level.
-				System.err.println("\r");
-				System.err.println(e.toString());
-				Console.showPrompt();
+				environment.getConsole().reportError(e.toString());
 			}
 		}
 		
 		environment.cleanup();
 
 		// Phase 2: Action Queue Processing
-		for (WordsObject object : environment.getObjects()) {
-			try {
-				object.executeNextAction(environment);
-			} catch (WordsProgramException e) {
-				System.err.println("\r");
-				System.err.println("Error executing action on object " + object.getObjectName() + ": \n" + e.toString());
-				System.err.println("Action will not be performed.");
-				Console.showPrompt();
+		// Iterate over a snapshot, since expanding a custom action may create objects
+		// Long runs of objects whose next actions are local are executed in parallel, with the same result as in order
+		int numActions = 0;
+		ArrayList<WordsObject> objects = environment.getObjectsSnapshot();
+		int start = 0;
+		while (start < objects.size()) {
+			int end = options.parallel ? endOfLocalRun(objects, start) : start;
+			if (end - start >= options.parallelThreshold) {
+				numActions += executeLocalRun(objects, start, end);
+			} else {
+				end = Math.max(end, start + 1);
+				for (int i = start; i < end; i++) {
+					WordsObject object = objects.get(i);
+					try {
+						if (object.executeNextAction(environment))
+							numActions++;
+					} catch (WordsProgramException e) {
+						reportActionError(object, e);
+					}
+				}
 			}
+			start = end;
 		}
 		
 		environment.cleanup();
 
 		// Phase 3: Listener Evaluation
+		// Stale conditions may first be evaluated in parallel; listeners then run in order, re-evaluating anything they made stale
+		if (options.parallel)
+			environment.getListenerNetwork().evaluateStaleConditions(environment, options.parallelListenerThreshold);
+		int numListenerFires = 0;
 		for (Iterator<WordsEventListener> iterator = environment.getEventListeners().iterator(); iterator.hasNext();) {
 			try {
 				WordsEventListener eventListener = iterator.next();
 				boolean delete = !eventListener.execute(environment);
+				if (eventListener.hasFired())
+					numListenerFires++;
 				if (delete) {
 					iterator.remove();
 				}
 			} catch (WordsProgramException e) {
-				System.err.println("\r");
-				System.err.println(e.toString());
-				Console.showPrompt();
+				environment.getConsole().reportError(e.toString());
 			}
 		}
 		
 		environment.cleanup();
+		statistics.frameExecuted(environment.getObjects().size(), numActions, numListenerFires);
+
+		if (recorder != null && recorder.shouldRecord(numFrames))
+			recorder.record(FrameSnapshot.capture(numFrames, environment, recorder.getViewport()));
 
 		if (GUI != null) {
-			GUI.clear();
-			for (WordsObject object : environment.getObjects()) {
-				GUI.add(object.getCurrentPosition(), object.getClassName(), object.getObjectName(), object.getCurrentMessage());
-			}
-			GUI.render();
+			publishFrame(numFrames);
 		} else {
-			System.out.println("frame #: " + numFrames);
-			FrameLog log = new FrameLog();
-			for (WordsObject object : environment.getObjects()) {
-				log.add(object.getCurrentPosition(), object.getClassName(), object.getObjectName(), object.getCurrentMessage());
+			if (shouldLogFrame()) {
+				frameLog.log(environment.getConsole().getOutput(), numFrames, environment);
 			}
-			log.log();
-			if (Options.FRAME_LIMIT_ENABLED && numFrames >= Options.MAX_FRAMES)
+			if (options.frameLimitEnabled && numFrames >= options.maxFrames)
 				finished = true;
 		}
 
@@ -136,6 +258,97 @@ public class FrameLoop extends Thread {
 		return finished;
 	}
 
+	/**
+	 * Returns the end of the run of objects from a given index on whose next actions are local.
+	 */
+	private static int endOfLocalRun(ArrayList<WordsObject> objects, int start) {
+		int end = start;
+		while (end < objects.size() && objects.get(end).hasLocalNextAction())
+			end++;
+		return end;
+	}
+	
+	/**
+	 * Executes the local actions of a run of objects on the fork-join pool, then commits their changes to the environment's
+	 * indexes in order, so that the indexes end up exactly as if the actions had been executed one after another.
+	 * @return the number of actions performed
+	 */
+	private int executeLocalRun(ArrayList<WordsObject> objects, int start, int end) {
+		boolean[] performed = new boolean[end - start];
+		WordsProgramException[] errors = new WordsProgramException[end - start];
+		ForkJoinPool.commonPool().invoke(new LocalActionTask(objects, start, start, end, performed, errors));
+		
+		int numActions = 0;
+		for (int i = start; i < end; i++) {
+			WordsObject object = objects.get(i);
+			object.commitLocalAction();
+			if (errors[i - start] != null)
+				reportActionError(object, errors[i - start]);
+			else if (performed[i - start])
+				numActions++;
+		}
+		return numActions;
+	}
+	
+	/**
+	 * Executes the local actions of a range of objects, splitting the range until it is small enough to run on one thread.
+	 */
+	private static class LocalActionTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+		private static final int GRAIN = 1024;
+		
+		private final ArrayList<WordsObject> objects;
+		private final int offset;		// The index of the object whose results go in the first element of the arrays
+		private final int start;
+		private final int end;
+		private final boolean[] performed;
+		private final WordsProgramException[] errors;
+		
+		LocalActionTask(ArrayList<WordsObject> objects, int offset, int start, int end, boolean[] performed, WordsProgramException[] errors) {
+			this.objects = objects;
+			this.offset = offset;
+			this.start = start;
+			this.end = end;
+			this.performed = performed;
+			this.errors = errors;
+		}
+		
+		@Override
+		protected void compute() {
+			if (end - start <= GRAIN) {
+				for (int i = start; i < end; i++) {
+					try {
+						performed[i - offset] = objects.get(i).executeLocalAction();
+					} catch (WordsProgramException e) {
+						errors[i - offset] = e;
+					}
+				}
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new LocalActionTask(objects, offset, start, middle, performed, errors),
+						new LocalActionTask(objects, offset, middle, end, performed, errors));
+			}
+		}
+	}
+	
+	private void reportActionError(WordsObject object, WordsProgramException e) {
+		environment.getConsole().reportError("Error executing action on object " + object.getObjectName() + ": \n" + e.toString(),
+				"Action will not be performed.");
+	}
+	
+	/**
+	 * Returns true if the current frame should be logged.  Every frame is logged, except in turbo mode, where only every
+	 * logInterval frames are, or only the last frame if no interval is given.
+	 */
+	private boolean shouldLogFrame() {
+		if (!options.turbo)
+			return true;
+		else if (options.logInterval > 0)
+			return numFrames % options.logInterval == 0;
+		else
+			return numFrames >= options.maxFrames;
+	}
+
 	public void fastForwardEnvironment(int numOfFrames) {
 		for (int i = 0; i < numOfFrames; i++) {
 			executeSingleFrame();
@@ -0,0 +1,133 @@
+package words;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Records the frames of a world as a numbered sequence of PNG images, drawn offscreen the way the GUI draws its board, so that
+ * runs without a display can be recorded.  Frames are drawn and encoded on a background thread.  At most a fixed number of
+ * frames wait to be encoded; when the encoder falls behind, frames are dropped rather than holding up the frame loop.
+ */
+public class FrameRecorder {
+	public static final int QUEUE_CAPACITY = 16;
+	private static final int WIDTH = 750;		// The size of the GUI's board with room for labels around it
+	private static final int HEIGHT = 730;
+	private static final int BOARD_SIZE = 650;
+	private static final Color BACKGROUND = new Color(238, 238, 238);
+	private static final Object END = new Object();		// Queued by close() after the last frame
+
+	private final File directory;
+	private final int interval;
+	private final Viewport viewport;
+	private final ArrayBlockingQueue<Object> queue;
+	private final Thread encoder;
+	private int dropped;				// Counted on the frame loop's thread
+	private volatile int written;		// Counted on the encoder's thread
+	private volatile IOException error;	// The first error writing an image, after which no more are written
+
+	/**
+	 * Creates a recorder that writes every interval-th frame to a directory, which is created if it does not exist.  Frames show
+	 * the cells the GUI shows when it opens.
+	 */
+	public FrameRecorder(File directory, int interval) {
+		this.directory = directory;
+		this.interval = Math.max(interval, 1);
+		this.viewport = Viewport.around(0, 0, GUI.initNumCells, GUI.viewportMargin);
+		this.queue = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+		directory.mkdirs();
+
+		encoder = new Thread(this::encodeFrames, "Frame recorder");
+		encoder.setDaemon(true);
+		encoder.start();
+	}
+
+	/**
+	 * Returns true if a frame with a given number should be recorded.
+	 */
+	public boolean shouldRecord(int frame) {
+		return frame % interval == 0;
+	}
+
+	/**
+	 * Returns the cells a recorded frame must include.
+	 */
+	public Viewport getViewport() {
+		return viewport;
+	}
+
+	/**
+	 * Queues a frame to be written, or drops it if the queue is full.  Never waits.
+	 */
+	public void record(FrameSnapshot frame) {
+		if (!queue.offer(frame))
+			dropped++;
+	}
+
+	/**
+	 * Waits for the queued frames to be written and stops the encoder.
+	 */
+	public void close() throws InterruptedException {
+		queue.put(END);
+		encoder.join();
+	}
+
+	public int getDropped() {
+		return dropped;
+	}
+
+	public int getWritten() {
+		return written;
+	}
+
+	/**
+	 * Returns the error that stopped frames from being written, or null if there was none.
+	 */
+	public IOException getError() {
+		return error;
+	}
+
+	/**
+	 * Returns the file a frame with a given number is written to.
+	 */
+	public File fileFor(int frame) {
+		return new File(directory, String.format("frame%06d.png", frame));
+	}
+
+	private void encodeFrames() {
+		BoardPainter painter = new BoardPainter(WIDTH, BOARD_SIZE);
+		painter.setView(GUI.initNumCells, 0, 0);
+		BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+		Rectangle all = new Rectangle(0, 0, WIDTH, HEIGHT);
+
+		try {
+			for (Object next = queue.take(); next != END; next = queue.take()) {
+				if (error != null)
+					continue;
+
+				FrameSnapshot frame = (FrameSnapshot) next;
+				Graphics2D g2 = image.createGraphics();
+				g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+				g2.setPaint(BACKGROUND);
+				g2.fillRect(0, 0, WIDTH, HEIGHT);
+				painter.paintFrame(g2, frame, all);
+				g2.dispose();
+
+				try {
+					ImageIO.write(image, "png", fileFor(frame.getFrame()));
+					written++;
+				} catch (IOException e) {
+					error = e;
+				}
+			}
+		} catch (InterruptedException e) {
+			// Stop recording
+		}
+	}
+}
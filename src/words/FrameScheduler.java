@@ -0,0 +1,125 @@
+package words;
+
+/**
+ * Paces the frame loop at a fixed rate.  Each frame has an absolute deadline on a grid of whole periods from the start, measured
+ * with System.nanoTime(), so the time spent executing a frame is taken out of the wait before the next one and errors do not
+ * accumulate into drift.
+ *
+ * A frame that starts late is followed immediately by the next one until the loop is back on the grid, as long as it has fallen
+ * no more than a given number of frames behind.  Beyond that, the missed frames are skipped and the grid is moved forward, so that
+ * a long stall does not turn into a burst of frames.
+ *
+ * The scheduler also keeps statistics on the frame rate actually achieved and on jitter, the mean difference between the time
+ * between two frames and the period.
+ */
+public class FrameScheduler {
+	private final long period;				// In nanoseconds
+	private final int maxCatchUpFrames;
+	private long deadline;					// When the next frame is due
+	private long skippedFrames;
+
+	// Statistics since the last report
+	private long lastStart;
+	private boolean started;
+	private int intervals;
+	private long totalInterval;
+	private long totalDeviation;
+
+	public FrameScheduler(long periodNanos, int maxCatchUpFrames) {
+		this.period = periodNanos;
+		this.maxCatchUpFrames = maxCatchUpFrames;
+	}
+
+	/**
+	 * Creates a scheduler for a period in milliseconds, as given in Options.
+	 */
+	public static FrameScheduler fromMillis(int periodMillis, int maxCatchUpFrames) {
+		return new FrameScheduler(periodMillis * 1000000L, maxCatchUpFrames);
+	}
+
+	/**
+	 * Starts the schedule at a given time, so that the first frame is due one period later.
+	 */
+	public void start(long now) {
+		deadline = now + period;
+	}
+
+	/**
+	 * Returns how many nanoseconds remain until the next frame is due, or 0 if it is due or late.
+	 */
+	public long getDelay(long now) {
+		return Math.max(0, deadline - now);
+	}
+
+	/**
+	 * Records that a frame is starting and sets the deadline of the next one, skipping frames if too far behind.
+	 */
+	public void frameStarted(long now) {
+		long late = now - deadline;
+		if (late > maxCatchUpFrames * period) {
+			long missed = late / period;
+			skippedFrames += missed;
+			deadline += missed * period;
+		}
+		deadline += period;
+
+		if (started) {
+			long interval = now - lastStart;
+			intervals++;
+			totalInterval += interval;
+			totalDeviation += Math.abs(interval - period);
+		}
+		lastStart = now;
+		started = true;
+	}
+
+	/**
+	 * Waits until the next frame is due and records that it is starting.
+	 */
+	public void awaitNextFrame() {
+		long delay;
+		while ((delay = getDelay(System.nanoTime())) > 0) {
+			try {
+				Thread.sleep(delay / 1000000, (int) (delay % 1000000));
+			} catch (InterruptedException e) {
+				// Keep waiting for the rest of the delay
+			}
+		}
+		frameStarted(System.nanoTime());
+	}
+
+	public double getTargetFrameRate() {
+		return 1e9 / period;
+	}
+
+	/**
+	 * Returns the frame rate achieved since the last report, or 0 if fewer than two frames have started.
+	 */
+	public double getAchievedFrameRate() {
+		return totalInterval == 0 ? 0 : intervals * 1e9 / totalInterval;
+	}
+
+	/**
+	 * Returns the mean difference, in milliseconds, between the time between two frames and the period, since the last report.
+	 */
+	public double getJitterMillis() {
+		return intervals == 0 ? 0 : totalDeviation / (intervals * 1e6);
+	}
+
+	public long getSkippedFrames() {
+		return skippedFrames;
+	}
+
+	/**
+	 * Returns a summary of the statistics and starts collecting new ones.
+	 */
+	public String report() {
+		String report = String.format("target %.2f fps, achieved %.2f fps, jitter %.2f ms, %d frames skipped",
+				getTargetFrameRate(), getAchievedFrameRate(), getJitterMillis(), skippedFrames);
+		intervals = 0;
+		totalInterval = 0;
+		totalDeviation = 0;
+		skippedFrames = 0;
+		return report;
+	}
+}
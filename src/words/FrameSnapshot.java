@@ -0,0 +1,187 @@
+package words;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+import words.environment.Environment;
+import words.environment.Position;
+import words.environment.SpatialIndex;
+import words.environment.WordsObject;
+
+/**
+ * An immutable picture of the objects of a world at the end of a frame, for the renderer to read while the frame loop goes on
+ * to the next frame.  The objects are kept in parallel arrays sorted by cell, so the objects in a cell are adjacent and in the
+ * order the world lists them.
+ */
+public final class FrameSnapshot {
+	private final int frame;
+	private final int[] xs;
+	private final int[] ys;
+	private final String[] classNames;
+	private final String[] objectNames;
+	private final String[] messages;		// Null where an object says nothing
+
+	private FrameSnapshot(int frame, int size) {
+		this.frame = frame;
+		this.xs = new int[size];
+		this.ys = new int[size];
+		this.classNames = new String[size];
+		this.objectNames = new String[size];
+		this.messages = new String[size];
+	}
+
+	/**
+	 * Captures the current positions, names and messages of a collection of objects.
+	 */
+	public static FrameSnapshot capture(int frame, Collection<WordsObject> objects) {
+		WordsObject[] sorted = objects.toArray(new WordsObject[objects.size()]);
+		// A stable sort, which keeps the objects in each cell in the order they were given
+		Arrays.sort(sorted, (a, b) -> compareCells(a.getCurrentPosition(), b.getCurrentPosition()));
+
+		FrameSnapshot snapshot = new FrameSnapshot(frame, sorted.length);
+		for (int i = 0; i < sorted.length; i++) {
+			snapshot.set(i, sorted[i]);
+		}
+		return snapshot;
+	}
+
+	/**
+	 * Captures the objects of a world that are in a viewport, looking up each of its cells in the spatial index rather than
+	 * scanning every object.  The objects in a cell are in the order the world lists them, as with the other capture().
+	 */
+	public static FrameSnapshot capture(int frame, Environment environment, Viewport viewport) {
+		SpatialIndex spatialIndex = environment.getSpatialIndex();
+		ArrayList<WordsObject> visible = new ArrayList<WordsObject>();
+		for (int x = viewport.getMinX(); x <= viewport.getMaxX(); x++) {
+			for (int y = viewport.getMinY(); y <= viewport.getMaxY(); y++) {
+				List<WordsObject> cell = spatialIndex.getObjectsAt(x, y);
+				if (cell.size() == 1) {
+					visible.add(cell.get(0));
+				} else if (!cell.isEmpty()) {
+					WordsObject[] objects = cell.toArray(new WordsObject[cell.size()]);
+					Arrays.sort(objects, WordsObject.BY_CREATION_ORDER);
+					visible.addAll(Arrays.asList(objects));
+				}
+			}
+		}
+
+		FrameSnapshot snapshot = new FrameSnapshot(frame, visible.size());
+		for (int i = 0; i < visible.size(); i++) {
+			snapshot.set(i, visible.get(i));
+		}
+		return snapshot;
+	}
+
+	private void set(int index, WordsObject object) {
+		Position position = object.getCurrentPosition();
+		xs[index] = position.x;
+		ys[index] = position.y;
+		classNames[index] = object.getClassName();
+		objectNames[index] = object.getObjectName();
+		messages[index] = object.getCurrentMessage();
+	}
+
+	private static int compareCells(Position a, Position b) {
+		return compareCells(a.x, a.y, b.x, b.y);
+	}
+
+	private static int compareCells(int ax, int ay, int bx, int by) {
+		return ax != bx ? Integer.compare(ax, bx) : Integer.compare(ay, by);
+	}
+
+	/**
+	 * Returns the cells whose objects, names or messages differ between an earlier frame and this one, in cell order.  Both
+	 * frames are walked once, side by side.
+	 */
+	public ArrayList<Position> changedCells(FrameSnapshot previous) {
+		ArrayList<Position> changed = new ArrayList<Position>();
+		int i = 0;
+		int j = 0;
+		while (i < size() || j < previous.size()) {
+			int order;
+			if (i == size())
+				order = 1;
+			else if (j == previous.size())
+				order = -1;
+			else
+				order = compareCells(xs[i], ys[i], previous.xs[j], previous.ys[j]);
+
+			int x = order <= 0 ? xs[i] : previous.xs[j];
+			int y = order <= 0 ? ys[i] : previous.ys[j];
+			int count = order <= 0 ? countAt(i, x, y) : 0;
+			int previousCount = order >= 0 ? previous.countAt(j, x, y) : 0;
+
+			if (count != previousCount || !sameObjects(i, previous, j, count))
+				changed.add(new Position(x, y));
+			i += count;
+			j += previousCount;
+		}
+		return changed;
+	}
+
+	private boolean sameObjects(int start, FrameSnapshot other, int otherStart, int count) {
+		for (int k = 0; k < count; k++) {
+			if (!objectNames[start + k].equals(other.objectNames[otherStart + k])
+					|| !classNames[start + k].equals(other.classNames[otherStart + k])
+					|| !Objects.equals(messages[start + k], other.messages[otherStart + k]))
+				return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the index of the first object in a cell, or the index where it would be if the cell is empty.
+	 */
+	public int firstAt(int x, int y) {
+		int low = 0;
+		int high = xs.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (xs[middle] < x || (xs[middle] == x && ys[middle] < y))
+				low = middle + 1;
+			else
+				high = middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Returns the number of objects in a cell, starting from the index returned by firstAt().
+	 */
+	public int countAt(int first, int x, int y) {
+		int end = first;
+		while (end < xs.length && xs[end] == x && ys[end] == y)
+			end++;
+		return end - first;
+	}
+
+	public int getFrame() {
+		return frame;
+	}
+
+	public int size() {
+		return xs.length;
+	}
+
+	public int getX(int index) {
+		return xs[index];
+	}
+
+	public int getY(int index) {
+		return ys[index];
+	}
+
+	public String getClassName(int index) {
+		return classNames[index];
+	}
+
+	public String getObjectName(int index) {
+		return objectNames[index];
+	}
+
+	public String getMessage(int index) {
+		return messages[index];
+	}
+}
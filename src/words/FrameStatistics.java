@@ -0,0 +1,76 @@
+package words;
+
+/**
+ * Counts the work done by the frame loop, so that a run can report its throughput for capacity planning.
+ */
+public class FrameStatistics {
+	private long startTime;		// In nanoseconds
+	private long frames;
+	private long objects;		// Summed over frames
+	private long actions;
+	private long listenerFires;
+
+	public FrameStatistics() {
+		this(System.nanoTime());
+	}
+
+	/**
+	 * Creates statistics whose throughput is measured from a given time in nanoseconds.
+	 */
+	public FrameStatistics(long startTime) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * Restarts the clock throughput is measured from at a given time in nanoseconds, so that work done before the frames run,
+	 * such as reading and parsing the program, is not counted.
+	 */
+	public void start(long startTime) {
+		this.startTime = startTime;
+	}
+
+	/**
+	 * Records a frame with the number of objects that existed at its end, the actions they performed and the listeners that fired.
+	 */
+	public void frameExecuted(int numObjects, int numActions, int numListenerFires) {
+		frames++;
+		objects += numObjects;
+		actions += numActions;
+		listenerFires += numListenerFires;
+	}
+
+	/**
+	 * Adds the counts of other statistics to these, such as those of another world run at the same time.
+	 */
+	public void add(FrameStatistics other) {
+		frames += other.frames;
+		objects += other.objects;
+		actions += other.actions;
+		listenerFires += other.listenerFires;
+	}
+
+	public long getFrames() {
+		return frames;
+	}
+
+	public double getObjectsPerFrame() {
+		return frames == 0 ? 0 : (double) objects / frames;
+	}
+
+	public long getActions() {
+		return actions;
+	}
+
+	public long getListenerFires() {
+		return listenerFires;
+	}
+
+	/**
+	 * Returns a summary of the throughput since the statistics were created or started, given the current time in nanoseconds.
+	 */
+	public String report(long now) {
+		double seconds = Math.max(now - startTime, 1) / 1e9;
+		return String.format("%d frames in %.3f s: %.1f frames/s, %.1f objects/frame, %.1f actions/s, %.1f listener fires/s",
+				frames, seconds, frames / seconds, getObjectsPerFrame(), actions / seconds, listenerFires / seconds);
+	}
+}
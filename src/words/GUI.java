@@ -7,6 +7,8 @@ import javax.swing.*;
 import words.environment.Position;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * A display to present a running Words program, along with UI elements to allow the user to customize the display (e.g., pan, zoom).
@@ -19,133 +21,41 @@ public class GUI {
 
 	int windowWidth, windowHeight;		// Dimensions of the window in pixels
 	int boardSize; 						// Dimensions (square) of the board in pixels
+	BoardPainter painter;				// Draws the board; used only on the event dispatch thread
 	int numCells;						// Number of rows (columns) in the board (must be odd)
 	static final int initNumCells = 9;	// Default value of numCells
 	static final int minCells = 5;		// Must be odd so that there is a cell in the center
 	static final int maxCells = 25;		// Must be odd so that there is a cell in the center
+	static final int maxDensityCells = 3327;	// Zooming out past maxCells shows object counts instead, up to this many cells across
+	static final int maxDensityTiles = 256;	// The most tiles across a density map; each tile counts the objects in a square of cells
 	static final int zoomStep = 2;		// Must be even so that there is a cell in the center
 	static final int moveStep = 2;
 	int xCenterCell, yCenterCell;		// The board coordinates of the cell depicted in the center
 
-	static final int topPadding = 40;	// Padding at the top of the window before the board in pixels
-
-	static final int labelPadding = 4;	// Padding from label to grid cell
-	
-	static final Font fLabel = new Font("SansSerif", Font.BOLD, 16);
-	static final Font fObj = new Font("SansSerif", Font.BOLD, 16);
-	static final Font fClass = new Font("SansSerif", Font.PLAIN, 8);
-	static final Font fMsg = new Font("SansSerif", Font.PLAIN, 10);
-	static final double lineSpacing = 0.75;
-	static final int cellPadding = 4;
-	static final int objOverlapSpacing = 4;
-	static final int maxOverlapObjects = 6;
+	static final int viewportMargin = 1;		// Cells captured beyond each edge of the board, whose messages may spill into view
 	
-	HashMap<String, LinkedList<RenderData>> content;
-
-	/**
-	 * A structure to hold rendering information about a single Words object.
-	 */
-	private class RenderData {
-		public String className;
-		public String objName;
-		public String message;
-
-		public RenderData(String className, String objName, String message) {
-			this.className = className;
-			this.objName = objName;
-			this.message = message;
-		}
+	// The latest frame published by the frame loop.  The frame loop only ever replaces it, so painting always sees a complete
+	// frame without holding up the next one.
+	AtomicReference<FrameSnapshot> latestFrame = new AtomicReference<FrameSnapshot>(FrameSnapshot.capture(0, Collections.emptyList()));
+	AtomicBoolean updatePending = new AtomicBoolean();	// True while the latest frame waits to be compared with the one shown
+	volatile Viewport viewport;			// The cells the frame loop should capture, following pan and zoom
+	AtomicReference<DensityMap> latestDensity = new AtomicReference<DensityMap>();	// The latest frame when zoomed out
+	volatile Runnable viewportListener;	// Told when the viewport changes, so that a frame of the new viewport can be published
 
-		@Override
-		public String toString() {
-			return className + " " + objName + (message != null ? " " + message : "");
-		}
-	}
-
-	/**
-	 * Convert a position into a string suitable to serve as a hash key.
-	 *
-	 * @return a string representing the coordinate
-	 */
-	private String positionToKey(Position p) {
-		return Integer.toString(p.x) + "_" + Integer.toString(p.y);
-	}
+	// The rest is used only on the event dispatch thread
+	FrameSnapshot shownFrame = latestFrame.get();		// The frame being painted
 
 	@SuppressWarnings("serial")
 	private class Grid extends JPanel {
-		int cellSize;					// Dimensions of a cell in pixels
-
 		/**
-		 * Draws a string centered at given coordinates.  Splits newlines.
-		 * Adapted from http://www.java2s.com/Tutorial/Java/0261__2D-Graphics/Centertext.htm
-		 *
-		 * @param g2 The Graphics2D context in which to draw
-		 * @param string The text that should be drawn
-		 * @param xCenter The x pixel position where the string should be centered
-		 * @param yCenter The y pixel position where the string should be centered
-		 * @param font The font the string should be drawn in
-		 * @param color The color the string should be drawn in
+		 * Repaints the cells whose objects differ between two frames, if they are in view.
 		 */
-		private void drawCenteredString(Graphics2D g2, String string, int x, int y, Font font, Color color) {
-			int numLines = string.split("\n", -1).length;
-			
-			g2.setFont(font);
-			g2.setPaint(color);
-
-			FontMetrics fm = g2.getFontMetrics();
-		    
-			int num = 1;
-			for (String line : string.split("\n")) {
-				int w = fm.stringWidth(line);
-				int h = fm.getAscent() + fm.getDescent();
-
-				g2.drawString(line, x - w/2, y + (int) (((double) num - ((double) numLines + 1)/2)*h*lineSpacing) - h/2 + fm.getAscent());
-				num++;
-			}
-		}
-
-		/**
-		 * Renders a given cell from the grid at given pixel coordinates.
-		 *
-		 * @param g2 The Graphics2D context in which to draw
-		 * @param xCenter The x pixel position where the cell should be centered
-		 * @param yCenter The y pixel position where the cell should be centered
-		 * @param p The position in the grid that should be rendered
-		 */
-
-		private void renderCell(Graphics2D g2, int xCenter, int yCenter, Position p) {
-			float scale = (float) initNumCells / (float) numCells;
-			
-			g2.setPaint(new Color(128, 128, 128));
-			g2.setStroke(new BasicStroke());
-
-			g2.drawRect(xCenter - cellSize/2, yCenter - cellSize/2, cellSize, cellSize);
-
-			LinkedList<RenderData> list = content.get(positionToKey(p));
-			if (list != null) {
-				int numToDisplay = list.size() < maxOverlapObjects ? list.size() : maxOverlapObjects;
-				
-				// Simple rendering of an object
-				int fillSize = cellSize - (int) (cellPadding*scale) - objOverlapSpacing*(numToDisplay - 1);
-				
-				Random random = new Random();
-				
-				for (int num = 1; num <= numToDisplay; num++) {
-					RenderData r = list.get(num - 1);
-					
-					int x = xCenter + (int) (((double) num - ((double) numToDisplay + 1) / 2) * objOverlapSpacing * scale);
-					int y = yCenter + (int) (((double) num - ((double) numToDisplay + 1) / 2) * objOverlapSpacing * scale);
-					
-					random.setSeed((r.objName + r.className).hashCode());
-
-					g2.setPaint(new Color(random.nextInt(128), random.nextInt(128), random.nextInt(128)));
-					g2.fillRect(x - fillSize/2, y - fillSize/2, fillSize, fillSize);
-					drawCenteredString(g2, r.objName, x, y - fillSize/3, fObj.deriveFont(scale * fObj.getSize()), Color.WHITE);
-					drawCenteredString(g2, "(" + r.className + ")", x, y - fillSize/8, fClass.deriveFont(scale * fClass.getSize()), Color.LIGHT_GRAY);
-
-					if (r.message != null)
-						drawCenteredString(g2, r.message, x, y + fillSize/6, fMsg.deriveFont(scale * fMsg.getSize()), Color.WHITE);
-				}
+		private void repaintChangedCells(FrameSnapshot previous, FrameSnapshot frame) {
+			painter.setView(numCells, xCenterCell, yCenterCell);
+			for (Position p : frame.changedCells(previous)) {
+				Rectangle bounds = painter.changedCellBounds(p);
+				if (bounds != null)
+					repaint(bounds);
 			}
 		}
 
@@ -153,36 +63,18 @@ public class GUI {
 			super.paintComponent(g);
 
 			Graphics2D g2 = (Graphics2D) g;
+			painter.setView(numCells, xCenterCell, yCenterCell);
+			if (numCells > maxCells) {
+				DensityMap map = latestDensity.get();
+				// Until a map of the current view arrives, the board is left empty
+				painter.paintDensity(g2, map != null && map.getViewport() == viewport ? map : null);
+				return;
+			}
 
-			// Background region
-			int x1, y1, x2, y2;			// Boundaries of the board in pixels
-			int cx, cy;					// Center of the board in pixel
-
-			x1 = (windowWidth - boardSize)/2;
-			y1 = topPadding;
-			x2 = x1 + boardSize;
-			y2 = y1 + boardSize;
-			cx = (x1 + x2)/2;
-			cy = (y1 + y2)/2;
-			cellSize = (x2 - x1) / numCells;
-
-			g2.setPaint(new Color(255, 255, 255));
-			g2.fillRect(x1, y1, x2-x1, y2-y1);
-
-			int extent = (numCells-1)/2;
-			
-			// Draw each cell
-			for (int i = -extent; i <= extent; i++)
-				for (int j = -extent; j <= extent; j++)
-					renderCell(g2, cx + i*cellSize, cy - j*cellSize, new Position(xCenterCell + i, yCenterCell + j));
-			
-			// Draw the x-axis labels
-			for (int i = -extent; i <= extent; i++)
-				drawCenteredString(g2, Integer.toString(xCenterCell + i), cx + i*cellSize, y1 - fLabel.getSize()/2 - labelPadding, fLabel, Color.BLACK);
-			
-			// Draw the y-axis labels
-			for (int j = -extent; j <= extent; j++)
-				drawCenteredString(g2, Integer.toString(yCenterCell + j), x1 - fLabel.getSize()/2 - labelPadding, cy - j*cellSize, fLabel, Color.BLACK);
+			Rectangle clip = g2.getClipBounds();
+			if (clip == null)
+				clip = new Rectangle(0, 0, getWidth(), getHeight());
+			painter.paintFrame(g2, shownFrame, clip);
 		}
 	}
 
@@ -193,22 +85,25 @@ public class GUI {
 
 		private class Handler implements ActionListener {
 		   public void actionPerformed(ActionEvent e) {
+			   // Zoomed out past maxCells, each step pans by a quarter of the view and zooms by a factor of two
+			   int step = numCells > maxCells ? numCells/4 : moveStep;
 			   if (e.getSource() == up) {
-				   yCenterCell += moveStep;
+				   yCenterCell += step;
 			   } else if (e.getSource() == down) {
-				   yCenterCell -= moveStep;
+				   yCenterCell -= step;
 			   } else if (e.getSource() == left) {
-				   xCenterCell -= moveStep;
+				   xCenterCell -= step;
 			   } else if (e.getSource() == right) {
-				   xCenterCell += moveStep;
+				   xCenterCell += step;
 			   } else if (e.getSource() == zoomIn) {
-				   numCells -= zoomStep;
+				   numCells = numCells > maxCells ? (numCells - 1)/2 : numCells - zoomStep;
 				   numCells = numCells < minCells ? minCells : numCells;
 			   } else if (e.getSource() == zoomOut) {
-				   numCells += zoomStep;
-				   numCells = numCells > maxCells ? maxCells : numCells;
+				   numCells = numCells >= maxCells ? 2*numCells + 1 : numCells + zoomStep;
+				   numCells = numCells > maxDensityCells ? maxDensityCells : numCells;
 			   }
 
+			   viewportChanged();
 			   grid.repaint();
 		   }
 		}
@@ -251,11 +146,11 @@ public class GUI {
 		windowWidth = 750;			// Default windowWidth
 		windowHeight = 770;			// Default windowHeight
 		boardSize = 650;			// Default boardSize
+		painter = new BoardPainter(windowWidth, boardSize);
 		numCells = initNumCells;	// Default numCells
 		xCenterCell = 0;
 		yCenterCell = 0;
-
-		content = new HashMap<String, LinkedList<RenderData>>();
+		viewport = Viewport.around(xCenterCell, yCenterCell, numCells, viewportMargin);
 
 		panel.setLayout(new BorderLayout());
 		panel.add(grid, BorderLayout.CENTER);
@@ -269,41 +164,67 @@ public class GUI {
 	}
 
 	/**
-	 * Clears all objects from the UI.  After calling this method, the user will see only an empty grid.
-	 * Typically, the caller will want to immediately repopulate the grid with new objects.
+	 * Hands a frame to the UI, replacing any frame that has not been shown yet, and asks for the cells that changed to be
+	 * repainted.  May be called from any thread; the caller does not wait for painting.
 	 */
-	public void clear() {
-		content.clear();
-		grid.repaint();
+	public void publish(FrameSnapshot frame) {
+		latestFrame.set(frame);
+		if (updatePending.compareAndSet(false, true))
+			SwingUtilities.invokeLater(this::showLatestFrame);
 	}
 
 	/**
-	 * Adds an object to the UI at a given position.
-	 *
-	 * @param p The position of the object
-	 * @param className The name of the class of this object
-	 * @param objName The name of the object
-	 * @param message The message that the object should say.  May be null.
+	 * Returns the cells whose objects the next frame published should include.  May be called from any thread.
 	 */
-	public void add(Position p, String className, String objName, String message) {
-		String key = positionToKey(p);
-		LinkedList<RenderData> list = content.get(key);
+	public Viewport getViewport() {
+		return viewport;
+	}
 
-		if (list == null) {
-			list = new LinkedList<RenderData>();
-			content.put(key, list);
-		}
+	/**
+	 * Sets what to run when the user pans or zooms.  It is run on the event dispatch thread, so it should only ask for a frame
+	 * to be published.
+	 */
+	public void setViewportListener(Runnable viewportListener) {
+		this.viewportListener = viewportListener;
+	}
 
-		list.add(new RenderData(className, objName, message));
+	/**
+	 * Returns the size of the tiles to count objects in for a viewport, or 0 if it is small enough to show each object.
+	 */
+	public static int densityTileSize(Viewport viewport) {
+		int cellsAcross = viewport.getMaxX() - viewport.getMinX() + 1;
+		if (cellsAcross <= maxCells + 2*viewportMargin)
+			return 0;
+		return (cellsAcross + maxDensityTiles - 1) / maxDensityTiles;
 	}
 
 	/**
-	 * Immediately updates the UI to show the objects that have been added.
+	 * Hands the UI a count of the objects in its viewport, to show when zoomed out too far to show each object.  May be called
+	 * from any thread.
 	 */
-	public void render() {
+	public void publish(DensityMap map) {
+		latestDensity.set(map);
 		grid.repaint();
 	}
 
+	private void viewportChanged() {
+		viewport = Viewport.around(xCenterCell, yCenterCell, numCells, numCells > maxCells ? 0 : viewportMargin);
+		Runnable listener = viewportListener;
+		if (listener != null)
+			listener.run();
+	}
+
+	/**
+	 * Shows the latest frame, repainting only the cells that differ from the frame shown before.  Frames published in between
+	 * are skipped.
+	 */
+	private void showLatestFrame() {
+		updatePending.set(false);
+		FrameSnapshot previous = shownFrame;
+		shownFrame = latestFrame.get();
+		((Grid) grid).repaintChangedCells(previous, shownFrame);
+	}
+
 	/**
 	 * Retrieves the position of the cell where the grid is currently centered.
 	 *
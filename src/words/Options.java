@@ -1,11 +1,34 @@
 package words;
 /**
- * Available options for running the Words interpreter.
+ * Available options for running the Words interpreter.  Each world has options of its own, so that several worlds can run
+ * side by side with different settings.
  */
-public class Options {
-	public static boolean GUI = true;
-	public static boolean PRINT_TO_CONSOLE = true;
-	public static int TIME_TO_WAIT = 1000;
-	public static boolean FRAME_LIMIT_ENABLED = false;
-	public static int MAX_FRAMES = Integer.MAX_VALUE;
+public class Options implements Cloneable {
+	public boolean gui = true;
+	public boolean printToConsole = true;
+	public int timeToWait = 1000;			// The period of a frame in milliseconds; frames run back to back if not positive
+	public int maxCatchUpFrames = 5;		// How far behind the frame loop may fall before skipping frames instead of catching up
+	public int frameStatsInterval = 0;		// Report the achieved frame rate every so many frames, if positive
+	public boolean frameLimitEnabled = false;
+	public int maxFrames = Integer.MAX_VALUE;
+	public boolean turbo = false;			// Run maxFrames frames as fast as possible and report the throughput
+	public int logInterval = 0;				// In turbo mode, log every so many frames, or only the last frame if not positive
+	public boolean parallel = true;			// Use several threads for the actions and listener conditions of large worlds
+	public int parallelThreshold = 4096;	// The fewest objects in a run worth executing in parallel
+	public int parallelListenerThreshold = 64;	// The fewest stale listener conditions worth evaluating in parallel
+	public boolean compile = true;			// Run compiled ASTs rather than walking the tree with eval()
+	public String recordDirectory = null;	// Write frames as PNG images to this directory, if not null
+	public int recordInterval = 1;			// Record every so many frames
+	public Long seed = null;				// The seed of the world's random number generator, or null for a different seed every run
+
+	/**
+	 * Returns a copy of these options, which can be changed without affecting them.
+	 */
+	public Options copy() {
+		try {
+			return (Options) clone();
+		} catch (CloneNotSupportedException e) {
+			throw new AssertionError(e);
+		}
+	}
 }
@@ -0,0 +1,43 @@
+package words;
+
+/**
+ * A rectangle of cells, such as the part of the board a renderer shows.
+ */
+public final class Viewport {
+	private final int minX, minY, maxX, maxY;		// Inclusive bounds
+
+	public Viewport(int minX, int minY, int maxX, int maxY) {
+		this.minX = minX;
+		this.minY = minY;
+		this.maxX = maxX;
+		this.maxY = maxY;
+	}
+
+	/**
+	 * Returns the viewport of a square of cells around a center cell, widened by a margin of cells on every side.
+	 */
+	public static Viewport around(int xCenter, int yCenter, int numCells, int margin) {
+		int extent = (numCells-1)/2 + margin;
+		return new Viewport(xCenter - extent, yCenter - extent, xCenter + extent, yCenter + extent);
+	}
+
+	public boolean contains(int x, int y) {
+		return x >= minX && x <= maxX && y >= minY && y <= maxY;
+	}
+
+	public int getMinX() {
+		return minX;
+	}
+
+	public int getMinY() {
+		return minY;
+	}
+
+	public int getMaxX() {
+		return maxX;
+	}
+
+	public int getMaxY() {
+		return maxY;
+	}
+}
@@ -1,5 +1,7 @@
 %{
   import java.io.*;
+  import java.util.ArrayList;
+  import java.util.List;
   import words.environment.*;
   import words.exceptions.*;
   import words.ast.*;
@@ -361,6 +363,7 @@ private int yylex() {
 
 
 public void yyerror(String error) {
+	numErrors++;
 	if (!hideErrors)
 		printLnToConsole("Error: " + error);
 }
@@ -370,43 +373,118 @@ public int getDepth() {
 }
 
 public Words(Reader r) {
+	this(r, new Options());
+}
+
+public Words(Reader r, Options options) {
+	this(r, options, null);
+}
+
+/**
+ * Creates a parser that reports its errors to a given stream, whether or not printing to the console is turned on.
+ */
+public Words(Reader r, Options options, PrintStream errors) {
 	lexer = new Yylex(r, this);
+	this.options = options;
+	this.errors = errors;
+}
+
+private void printLnToConsole(String message) {
+	if (errors != null)
+		errors.println(message);
+	else
+		printLnToConsole(options, message);
 }
 
-private static void printLnToConsole() {
-	if (Options.PRINT_TO_CONSOLE) {
+private static void printLnToConsole(Options options) {
+	if (options.printToConsole) {
 		System.err.println();
 	}
 }
 
-private static void printLnToConsole(String message) {
-	if (Options.PRINT_TO_CONSOLE) {
+private static void printLnToConsole(Options options, String message) {
+	if (options.printToConsole) {
 		System.err.println(message);
 	}
 }
 
 
+/**
+ * Returns true if a command line option is followed by a value, which must not be mistaken for the program file.
+ */
+private static boolean takesValue(String option) {
+	return option.equals("-s") || option.equals("-catchup") || option.equals("-framestats") || option.equals("-turbo")
+			|| option.equals("-every") || option.equals("-batch") || option.equals("-threads") || option.equals("-seed")
+			|| option.equals("-record") || option.equals("-recordevery");
+}
+
 public static FrameLoop frameLoop;
+private Options options;
+private PrintStream errors;		// Where errors are reported instead of the console, if set
 public AST root;
 public boolean hideErrors = false;
+public int numErrors;			// The number of syntax errors found, including hidden ones
 public String errorToken;
 public int errorLineNumber;
 public int errorCharNumber;
 
-public static void main(String args[]) throws IOException {
+public static void main(String args[]) throws IOException, InterruptedException {
 	
 	GUI ui = null;
+	Options options = new Options();
+	String batchDirectory = null;
+	int threads = Runtime.getRuntime().availableProcessors();
 	// Handle testmode Options
 	for (int i = 0; i < args.length; ++i) {
 		if (args[i].equals("-s") && i < args.length - 1) {
 			try {
-				Options.TIME_TO_WAIT = Integer.parseInt(args[i+1]);
+				options.timeToWait = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-catchup") && i < args.length - 1) {
+			try {
+				options.maxCatchUpFrames = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-framestats") && i < args.length - 1) {
+			try {
+				options.frameStatsInterval = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-turbo") && i < args.length - 1) {
+			try {
+				options.maxFrames = Integer.parseInt(args[i+1]);
+				options.turbo = true;
+				options.gui = false;
+				options.timeToWait = -1;
+				options.frameLimitEnabled = true;
+			} catch (Exception e) {}
+		} else if (args[i].equals("-every") && i < args.length - 1) {
+			try {
+				options.logInterval = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-batch") && i < args.length - 1) {
+			batchDirectory = args[i+1];
+		} else if (args[i].equals("-threads") && i < args.length - 1) {
+			try {
+				threads = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-seed") && i < args.length - 1) {
+			try {
+				options.seed = Long.parseLong(args[i+1]);
 			} catch (Exception e) {}
+		} else if (args[i].equals("-record") && i < args.length - 1) {
+			options.recordDirectory = args[i+1];
+		} else if (args[i].equals("-recordevery") && i < args.length - 1) {
+			try {
+				options.recordInterval = Integer.parseInt(args[i+1]);
+			} catch (Exception e) {}
+		} else if (args[i].equals("-sequential")) {
+			options.parallel = false;
+		} else if (args[i].equals("-interpret")) {
+			options.compile = false;
 		} else if (args[i].equals("-testmode")) {
-			Options.GUI = false;
-			Options.TIME_TO_WAIT = -1;
-			Options.FRAME_LIMIT_ENABLED = true;
-			Options.MAX_FRAMES = 100;
+			options.gui = false;
+			options.timeToWait = -1;
+			options.frameLimitEnabled = true;
+			options.maxFrames = 100;
 			
 			boolean turnOffErrorMessages = true;
 			for (int j = 0; j < args.length; ++j) {
@@ -415,25 +493,39 @@ public static void main(String args[]) throws IOException {
 				}
 			}
 			if (turnOffErrorMessages) {
-				Options.PRINT_TO_CONSOLE = false;
+				options.printToConsole = false;
 			}
 		}
 	}
 	
-	printLnToConsole("Welcome to Words!");
+	if (batchDirectory != null) {
+		runBatch(args, options, batchDirectory, threads);
+		return;
+	}
+	
+	// Recording without a GUI must not need a display
+	if (!options.gui && options.recordDirectory != null)
+		System.setProperty("java.awt.headless", "true");
+
+	printLnToConsole(options, "Welcome to Words!");
 	
-	if (Options.GUI)
+	if (options.gui)
 		ui = new GUI();
 
-	frameLoop = new FrameLoop(ui);
+	frameLoop = new FrameLoop(ui, options);
+	frameLoop.setExitHandler(() -> System.exit(0));
+	if (options.recordDirectory != null)
+		frameLoop.setRecorder(new FrameRecorder(new File(options.recordDirectory), options.recordInterval));
 
 	// Read and parse program argument, if any
 	for (int i = 0; i < args.length; ++i) {
-		if (args[i].charAt(0) != '-') {
+		if (takesValue(args[i])) {
+			++i;
+		} else if (args[i].charAt(0) != '-') {
 			// Read in Words program from file
 			String filename = args[i];
 			try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
-				Words parser = new Words(br);
+				Words parser = new Words(br, options);
 				parser.yyparse();
 
 				if (parser.root != null)
@@ -441,7 +533,7 @@ public static void main(String args[]) throws IOException {
 
 				br.close();
 			} catch (IOException e) {
-				printLnToConsole("Unable to read file " + filename);
+				printLnToConsole(options, "Unable to read file " + filename);
 			}
 			break;
 		}
@@ -451,11 +543,12 @@ public static void main(String args[]) throws IOException {
 	frameLoop.start();
 
 	// If no GUI, then no REPL
-	if (!Options.GUI)
+	if (!options.gui)
 		return;
 
 	// Simple REPL interface
 	BufferedReader br = new BufferedReader(new InputStreamReader(System.in));
+	Console console = frameLoop.getEnvironment().getConsole();
 	while (true) {
 		String fragment = "";
 		int depth = 0;
@@ -463,9 +556,9 @@ public static void main(String args[]) throws IOException {
 		while (true) {
 			// Prompt user
 			if (depth > 0)
-				Console.showPromptMore();
+				console.showPromptMore();
 			else
-				Console.showPrompt();
+				console.showPrompt();
 
 			// Read next line and exit on EOF
 			String line = br.readLine();
@@ -476,7 +569,7 @@ public static void main(String args[]) throws IOException {
 			fragment = fragment + line;
 
 			// Attempt to parse the fragment
-			Words tester = new Words(new StringReader(fragment));
+			Words tester = new Words(new StringReader(fragment), options);
 			tester.hideErrors = true;
 			tester.yyparse();
 
@@ -487,11 +580,48 @@ public static void main(String args[]) throws IOException {
 				break;
 		}
 
-		Words parser = new Words(new StringReader(fragment));
+		Words parser = new Words(new StringReader(fragment), options);
 		parser.yyparse();
 
-		printLnToConsole();
+		printLnToConsole(options);
 		if (parser.root != null)
 			frameLoop.enqueueAST(parser.root);
 	}
 }
+
+/**
+ * Runs every program named on the command line in a world of its own, writing the output of each world to files in a
+ * directory, and reports the combined throughput.  Batch runs are headless and run 100 frames unless told otherwise.
+ */
+private static void runBatch(String args[], Options options, String directory, int threads) throws InterruptedException {
+	if (!options.frameLimitEnabled) {
+		options.frameLimitEnabled = true;
+		options.maxFrames = 100;
+	}
+
+	ArrayList<File> programs = new ArrayList<File>();
+	for (int i = 0; i < args.length; ++i) {
+		if (takesValue(args[i])) {
+			++i;
+		} else if (args[i].charAt(0) != '-') {
+			programs.add(new File(args[i]));
+		}
+	}
+
+	File outputDirectory = new File(directory);
+	outputDirectory.mkdirs();
+
+	long startTime = System.nanoTime();
+	List<BatchRunner.Result> results;
+	try {
+		results = new BatchRunner(options, threads).run(programs, outputDirectory);
+	} catch (IllegalArgumentException e) {
+		System.err.println(e.getMessage());
+		return;
+	}
+	for (BatchRunner.Result result : results) {
+		if (result.failed())
+			System.err.println(result.program + ": " + result.error);
+	}
+	System.err.println(BatchRunner.report(results, startTime, System.nanoTime()));
+}
@@ -8,6 +8,10 @@ import words.exceptions.*;
  */
 public abstract class AST {
 	public int lineNumber;
+	private Executable executable;		// The compiled form of this node; compiled the first time it is needed
+	private NumExecutable numExecutable;
+	private boolean numCompiled;		// Whether compileNum() has been called, since it may return null
+	private BooleanExecutable booleanExecutable;
 	
 	public AST() {
 		lineNumber = -1;
@@ -20,6 +24,12 @@ public abstract class AST {
 	 */
 	public abstract void dump(int level);
 	
+	/**
+	 * Returns a description of this node and its children which is the same for any two subtrees that are written alike,
+	 * wherever they appear in the program, so that equivalent expressions can be recognized and shared.
+	 */
+	public abstract String structure();
+	
 	/**
 	 * Evaluate an AST node to return an ASTValue and possibly have side effects on the passed environment.
 	 * 
@@ -36,4 +46,159 @@ public abstract class AST {
 	 * @throws WordsRuntimeException
 	 */
 	public ASTValue eval(Environment environment, Object inherited) throws WordsRuntimeException { return eval(environment); };
+	
+	/**
+	 * Run an AST node, either by executing its compiled form or, if compilation is turned off in the environment's options, by evaluating it.
+	 * This is the entry point used by the frame loop, actions and listeners.
+	 * 
+	 * @throws WordsRuntimeException
+	 */
+	public final ASTValue execute(Environment environment, Object inherited) throws WordsRuntimeException {
+		if (environment.getOptions().compile) {
+			return getExecutable().execute(environment, inherited);
+		} else {
+			return eval(environment, inherited);
+		}
+	}
+	
+	public final ASTValue execute(Environment environment) throws WordsRuntimeException {
+		return execute(environment, null);
+	}
+	
+	/**
+	 * Run an AST node whose value is a boolean, such as a condition or a listener's predicate, and return that value.
+	 * 
+	 * @throws WordsRuntimeException
+	 */
+	public final boolean executeBoolean(Environment environment) throws WordsRuntimeException {
+		if (environment.getOptions().compile) {
+			return getBooleanExecutable().execute(environment);
+		} else {
+			ASTValue value = eval(environment);
+			assert value.type == ASTValue.Type.BOOLEAN : "Predicate has type " + value.type.toString();
+			return value.booleanValue;
+		}
+	}
+	
+	/**
+	 * Returns the compiled form of this node, compiling it on first use.
+	 */
+	public final Executable getExecutable() {
+		if (executable == null) {
+			executable = compile();
+		}
+		return executable;
+	}
+	
+	/**
+	 * Discards the compiled form of this node so that it is compiled again on next use, e.g., after the Resolver has
+	 * changed how the node should run.
+	 */
+	void clearExecutable() {
+		executable = null;
+		numExecutable = null;
+		numCompiled = false;
+		booleanExecutable = null;
+	}
+	
+	/**
+	 * Returns the numeric compiled form of this node, or null if it has none.  Compiled on first use.
+	 */
+	public final NumExecutable getNumExecutable() {
+		if (!numCompiled) {
+			numExecutable = compileNum();
+			numCompiled = true;
+		}
+		return numExecutable;
+	}
+	
+	/**
+	 * Returns the boolean compiled form of this node, compiling it on first use.
+	 */
+	public final BooleanExecutable getBooleanExecutable() {
+		if (booleanExecutable == null) {
+			booleanExecutable = compileBoolean();
+		}
+		return booleanExecutable;
+	}
+	
+	/**
+	 * Compile this node into an Executable.
+	 * 
+	 * Subclasses should override this method to resolve their constant parts once and to execute the compiled forms of their
+	 * children.  The default simply evaluates the node, which is always correct but gains nothing.
+	 */
+	protected Executable compile() {
+		return this::eval;
+	}
+	
+	/**
+	 * Compile this node into a NumExecutable, or return null if its value is not always a number when its operands are.
+	 * 
+	 * Subclasses that return one must not have side effects, since the expression is executed again by its ordinary
+	 * compiled form if an operand turns out not to be a number.
+	 */
+	protected NumExecutable compileNum() {
+		return null;
+	}
+	
+	/**
+	 * Compile this node, whose value must be a boolean, into a BooleanExecutable.
+	 * 
+	 * Subclasses should override this method if they can compute their value without allocating.  The default unwraps
+	 * the value of the ordinary compiled form.
+	 */
+	protected BooleanExecutable compileBoolean() {
+		Executable executable = getExecutable();
+		return environment -> {
+			ASTValue value = executable.execute(environment, null);
+			assert value.type == ASTValue.Type.BOOLEAN : "Predicate has type " + value.type.toString();
+			return value.booleanValue;
+		};
+	}
+	
+	/**
+	 * Returns the value of this node if it can be determined without an environment, or null if it cannot.
+	 */
+	public ASTValue constantValue() {
+		return null;
+	}
+	
+	/**
+	 * Returns the name a node stands for if it is a constant identifier, reference or string, or null otherwise.
+	 */
+	protected static String constantName(AST node) {
+		ASTValue value = node == null ? null : node.constantValue();
+		
+		if (value != null && value.type == ASTValue.Type.STRING) {
+			return value.stringValue;
+		} else {
+			return null;
+		}
+	}
+	
+	/**
+	 * Returns the compiled form of a node that may be null.
+	 */
+	protected static Executable compileOptional(AST node) {
+		return node == null ? null : node.getExecutable();
+	}
+	
+	/**
+	 * Combines the numeric and ordinary compiled forms of an arithmetic node, so that its value is computed as a double and
+	 * boxed only once, falling back to the ordinary form if an operand is not a number.  A null numeric form leaves only
+	 * the ordinary one.
+	 */
+	protected static Executable numericFirst(NumExecutable numeric, Executable ordinary) {
+		if (numeric == null)
+			return ordinary;
+		
+		return (environment, inherited) -> {
+			try {
+				return new ASTValue(numeric.execute(environment));
+			} catch (NotANumber e) {
+				return ordinary.execute(environment, inherited);
+			}
+		};
+	}
 }
\ No newline at end of file
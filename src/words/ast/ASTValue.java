@@ -91,7 +91,7 @@ public class ASTValue {
 	public ASTValue tryCoerceTo(Type newType) {
 		switch(newType) {
 			case NUM:
-				if (type == Type.STRING) {
+				if (type == Type.STRING && mayBeNumber(stringValue)) {
 					try {  
 						double val = Double.parseDouble(stringValue);
 						this.numValue = val;
@@ -135,4 +135,17 @@ public class ASTValue {
 				throw new AssertionError("Cannot convert ASTValue of type " + this.type.toString() + "to WordsProperty");
 		}
 	}
+	
+	/**
+	 * Returns false if a string certainly cannot be parsed as a number, allowing most non-numeric strings to skip the
+	 * attempt.  A string that may be a number must still be parsed to find out.
+	 */
+	static boolean mayBeNumber(String s) {
+		if (s.isEmpty())
+			return false;
+		
+		// Double.parseDouble() ignores leading whitespace, and numbers can only start with these characters
+		char c = s.charAt(0);
+		return c <= ' ' || (c >= '0' && c <= '9') || c == '+' || c == '-' || c == '.' || c == 'I' || c == 'N';
+	}
 }
@@ -0,0 +1,48 @@
+package words.ast;
+
+import words.environment.*;
+
+/**
+ * Where the Resolver found that a variable may live: the slots of the enclosing scopes whose blocks declare it, innermost
+ * first.  Each is given as the number of scopes to go up from the current scope, the layout that scope must have, and the
+ * slot within it, or RECEIVER for a pronoun referring to the receiver of a custom action's scope.
+ */
+public class Binding {
+	public static final int RECEIVER = -1;
+	
+	private int[] hops;
+	private ScopeLayout[] layouts;
+	private int[] slots;
+	
+	public Binding(int[] hops, ScopeLayout[] layouts, int[] slots) {
+		this.hops = hops;
+		this.layouts = layouts;
+		this.slots = slots;
+	}
+	
+	/**
+	 * Returns the variable from the innermost slot that holds one, or null if none does, in which case the variable
+	 * must be looked up by name.
+	 */
+	public Variable lookup(Environment environment) {
+		Scope scope = environment.getCurrentScope();
+		int depth = 0;
+		
+		for (int i = 0; i < slots.length; i++) {
+			while (depth < hops[i] && scope != null) {
+				scope = scope.parent;
+				depth++;
+			}
+			
+			// If the scopes are not the ones that were laid out, fall back to looking the variable up by name
+			if (scope == null || scope.getLayout() != layouts[i])
+				return null;
+			
+			Variable variable = slots[i] == RECEIVER ? scope.getReceiver() : scope.getSlot(slots[i]);
+			if (variable != null)
+				return variable;
+		}
+		
+		return null;
+	}
+}
@@ -0,0 +1,18 @@
+package words.ast;
+
+import words.environment.*;
+import words.exceptions.*;
+
+/**
+ * The compiled form of a boolean expression, such as a condition or a listener's predicate, which computes its value
+ * without allocating an ASTValue.
+ */
+@FunctionalInterface
+public interface BooleanExecutable {
+	/**
+	 * Execute the compiled expression and return its boolean value.
+	 * 
+	 * @throws WordsRuntimeException
+	 */
+	public boolean execute(Environment environment) throws WordsRuntimeException;
+}
@@ -0,0 +1,20 @@
+package words.ast;
+
+import words.environment.*;
+import words.exceptions.*;
+
+/**
+ * The compiled form of an AST node.  Compiling a node resolves everything about it that does not depend on the environment
+ * (identifiers, class names, directions, and the shape of its children) once, so that executing it only does the work that
+ * remains at run time.
+ */
+@FunctionalInterface
+public interface Executable {
+	/**
+	 * Execute the compiled node to return an ASTValue and possibly have side effects on the passed environment.  The inherited
+	 * attribute has the same meaning as for AST.eval().
+	 * 
+	 * @throws WordsRuntimeException
+	 */
+	public ASTValue execute(Environment environment, Object inherited) throws WordsRuntimeException;
+}
@@ -10,6 +10,7 @@ import words.exceptions.*;
  */
 public abstract class INode extends AST {
 	public ArrayList<AST> children;
+	Binding variableBinding;		// Where the Resolver found the variable named by variableName() may live, if anywhere
 	
 	public INode(Object... children) {
 		super();
@@ -59,6 +60,20 @@ public abstract class INode extends AST {
 		}		
 	}
 	
+	@Override
+	public String structure() {
+		StringBuilder s = new StringBuilder();
+		
+		s.append("[" + getClass().getSimpleName());
+		
+		for (AST child : children)
+			s.append(" " + (child == null ? "null" : child.structure()));
+		
+		s.append("]");
+		
+		return s.toString();
+	}
+	
 	@Override
 	public String toString() {
 		StringBuilder s = new StringBuilder();
@@ -89,4 +104,94 @@ public abstract class INode extends AST {
 			return environment.getVariable(identifier.stringValue);
 		}
 	}
-}
+	
+	/**
+	 * Returns the name of the variable this node looks up directly in the environment, or null if it does not.
+	 * Used by the Resolver to bind the name to a slot.
+	 */
+	protected String variableName() {
+		return null;
+	}
+	
+	/**
+	 * Returns whether a reference list node is known to be empty, so that an identifier following it names a variable.
+	 */
+	protected static boolean isEmptyReferenceList(AST referenceObject) {
+		if (referenceObject instanceof INodeReferenceList) {
+			return ((INodeReferenceList) referenceObject).children.size() == 0;
+		}
+		return referenceObject instanceof LNodeNothing;
+	}
+	
+	/**
+	 * Compiles a reference list that precedes an identifier, returning null if it is known to be empty.
+	 */
+	protected static Executable compileReferenceObject(AST referenceObject) {
+		return isEmptyReferenceList(referenceObject) ? null : referenceObject.getExecutable();
+	}
+	
+	/**
+	 * Looks up a variable, first in the slots the Resolver bound it to, if any, and then by name.
+	 */
+	protected static Variable lookupVariable(Environment environment, String name, Binding binding) {
+		if (binding != null) {
+			Variable variable = binding.lookup(environment);
+			if (variable != null)
+				return variable;
+		}
+		return environment.getVariable(name);
+	}
+	
+	/**
+	 * The compiled counterpart of lookupProperty(), for an identifier that was resolved at compile time.  A null
+	 * reference list stands for an empty one.
+	 */
+	public static Variable lookupProperty(Environment environment, Executable referenceObject, String identifier, Binding binding) throws WordsRuntimeException {
+		if (referenceObject == null) {
+			return lookupVariable(environment, identifier, binding);
+		}
+		
+		ASTValue referenceObjectValue = referenceObject.execute(environment, null);
+		
+		if (referenceObjectValue.type.equals(ASTValue.Type.OBJ)) {
+			return referenceObjectValue.objValue.getProperty(identifier);
+		} else {
+			return lookupVariable(environment, identifier, binding);
+		}
+	}
+	
+	/**
+	 * Looks up the object that a compiled reference list and identifier refer to.
+	 * Throws an InvalidTypeException if they do not refer to an object.
+	 */
+	public static WordsObject lookupObject(Environment environment, Executable referenceObject, String identifier, Binding binding) throws WordsRuntimeException {
+		Variable property = lookupProperty(environment, referenceObject, identifier, binding);
+		if (property.type != Variable.VariableType.OBJECT) {
+			throw new InvalidTypeException(ASTValue.Type.OBJ.toString(), property.type.toString());
+		}
+		return property.objProperty;
+	}
+	
+	/**
+	 * Enters the scope a block runs in, as laid out by the Resolver, and returns whether a scope was entered.
+	 * A block that declares nothing runs in the enclosing scope, and a block that has not been resolved always gets a new scope.
+	 */
+	protected static boolean enterBlock(Environment environment, ScopeLayout layout) {
+		if (layout == null) {
+			environment.pushNewScope();
+			return true;
+		} else if (layout.isEmpty()) {
+			return false;
+		} else {
+			environment.pushNewScope(environment.getCurrentScope(), layout);
+			return true;
+		}
+	}
+	
+	/**
+	 * Returns the layout the Resolver gave a block, or null if it has none.
+	 */
+	protected static ScopeLayout scopeLayoutOf(AST block) {
+		return block instanceof INodeStatementList ? ((INodeStatementList) block).getScopeLayout() : null;
+	}
+}
\ No newline at end of file
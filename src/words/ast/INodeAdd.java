@@ -10,8 +10,29 @@ public class INodeAdd extends INode {
 
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
-		ASTValue lhs = children.get(0).eval(environment).tryCoerceTo(ASTValue.Type.NUM);
-		ASTValue rhs = children.get(1).eval(environment).tryCoerceTo(ASTValue.Type.NUM);
+		return add(children.get(0).eval(environment), children.get(1).eval(environment));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		return numericFirst(getNumExecutable(), new AddOperator(lhs, rhs));
+	}
+	
+	@Override
+	protected NumExecutable compileNum() {
+		NumExecutable lhsNum = children.get(0).getNumExecutable();
+		NumExecutable rhsNum = children.get(1).getNumExecutable();
+		if (lhsNum == null || rhsNum == null)
+			return null;
+		
+		return environment -> lhsNum.execute(environment) + rhsNum.execute(environment);
+	}
+	
+	private static ASTValue add(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
+		lhs.tryCoerceTo(ASTValue.Type.NUM);
+		rhs.tryCoerceTo(ASTValue.Type.NUM);
 		
 		// check for objects
 		if (lhs.type == ASTValue.Type.OBJ) {
@@ -33,4 +54,63 @@ public class INodeAdd extends INode {
 			throw new WordsArithmeticException(lhs.type.toString(), rhs.type.toString());
 		}
 	}
+	
+	/**
+	 * Addition specialized to numbers or to concatenation.
+	 */
+	private static final class AddOperator extends SpecializingOperator {
+		private static final int NUMBERS = 1;
+		private static final int CONCATENATION = 2;
+		
+		AddOperator(Executable lhs, Executable rhs) {
+			super(lhs, rhs);
+		}
+		
+		@Override
+		protected int specialize(ASTValue lhs, ASTValue rhs) {
+			if (lhs.type == ASTValue.Type.NUM && rhs.type == ASTValue.Type.NUM)
+				return NUMBERS;
+			else if (isConcatenated(lhs, rhs))
+				return CONCATENATION;
+			else
+				return GENERIC;
+		}
+		
+		@Override
+		protected ASTValue executeSpecialized(int specialization, ASTValue lhs, ASTValue rhs) {
+			if (specialization == NUMBERS) {
+				if (lhs.type == ASTValue.Type.NUM && rhs.type == ASTValue.Type.NUM)
+					return new ASTValue(lhs.numValue + rhs.numValue);
+			} else if (isConcatenated(lhs, rhs)) {
+				return new ASTValue(lhs.tryCoerceTo(ASTValue.Type.STRING).stringValue + rhs.tryCoerceTo(ASTValue.Type.STRING).stringValue);
+			}
+			
+			return null;
+		}
+		
+		@Override
+		protected ASTValue executeGeneric(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
+			return add(lhs, rhs);
+		}
+		
+		/**
+		 * Returns whether adding two values is certainly a concatenation: neither is a string that could be coerced to a
+		 * number, and at least one of them is not a number.
+		 */
+		private static boolean isConcatenated(ASTValue lhs, ASTValue rhs) {
+			return isConcatenable(lhs) && isConcatenable(rhs) && (lhs.type != ASTValue.Type.NUM || rhs.type != ASTValue.Type.NUM);
+		}
+		
+		private static boolean isConcatenable(ASTValue value) {
+			switch (value.type) {
+				case NUM:
+				case OBJ:
+					return true;
+				case STRING:
+					return !ASTValue.mayBeNumber(value.stringValue);
+				default:
+					return false;
+			}
+		}
+	}
 }
\ No newline at end of file
@@ -1,15 +1,38 @@
 package words.ast;
 
-import java.util.HashSet;
-
 import words.environment.*;
 import words.exceptions.*;
 
 public class INodeAdjacencyPredicate extends INodeBasicActionPredicate {
+	private static final int[][] ABOVE = {{0, -1}};
+	private static final int[][] BELOW = {{0, 1}};
+	private static final int[][] LEFT_OF = {{1, 0}};
+	private static final int[][] RIGHT_OF = {{-1, 0}};
+	private static final int[][] NEXT_TO = {{0, 1}, {-1, 0}, {1, 0}, {0, -1}};
+	
 	public INodeAdjacencyPredicate(Object... children) {
 		super(children);
 	}
 	
+	/**
+	 * Returns the offsets from the first object at which the second object must be for the first object to be adjacent of it
+	 * in the given direction, i.e., for DOWN, the second object is one cell above the first.
+	 */
+	private static int[][] getOffsets(Direction direction) {
+		switch (direction) {
+			case UP:
+				return ABOVE;
+			case DOWN:
+				return BELOW;
+			case LEFT:
+				return LEFT_OF;
+			case RIGHT:
+				return RIGHT_OF;
+			default:
+				return NEXT_TO;
+		}
+	}
+	
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
 		assert false : "Cannot eval INodeAdjacentPredicate without inherited Statement List";
@@ -26,33 +49,39 @@ public class INodeAdjacencyPredicate extends INodeBasicActionPredicate {
 		
 		INodeStatementList stmtList = (INodeStatementList) inheritedStmts;
 		
-		if (objectAlias1.type.equals(ASTValue.Type.STRING) 
-				&& objectAlias2.type.equals(ASTValue.Type.STRING)
-				&& objectAlias1.stringValue.equals(objectAlias2.stringValue)) {
-			throw new AliasException();
-		}
+		String alias1 = aliasName(objectAlias1);
+		String alias2 = aliasName(objectAlias2);
+		checkAliases(alias1, alias2);
 		
-		HashSet<WordsObject> objectsToCheck1 = getObjectsToCheck(subject1, environment);
-		HashSet<WordsObject> objectsToCheck2 = getObjectsToCheck(subject2, environment);
-		ASTValue returnVal = new ASTValue(false);
+		boolean matched = evalNearbyPairs(environment, subject1, alias1, subject2, alias2, getOffsets(direction.directionValue), stmtList::eval, null);
+		return new ASTValue(matched);
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable subject1 = children.get(0).getExecutable();
+		ASTValue objectAlias1 = children.get(1).constantValue();
+		ASTValue direction = children.get(2).constantValue();
+		Executable subject2 = children.get(3).getExecutable();
+		ASTValue objectAlias2 = children.get(4).constantValue();
+		if (objectAlias1 == null || direction == null || objectAlias2 == null)
+			return super.compile();
 		
-		for (WordsObject object1: objectsToCheck1) {
-			for (WordsObject object2: objectsToCheck2) {
-				boolean objectsMoved = object1.movedInThisFrame() || object2.movedInThisFrame();
-				if (object1 != object2 && objectsMoved && object1.getCurrentPosition().isAdjacentOf(object2.getCurrentPosition(), direction.directionValue)) {
-					returnVal.booleanValue = true;
-					environment.pushNewScope();
-					if (objectAlias1.type.equals(ASTValue.Type.STRING)) {
-						environment.addToCurrentScope(objectAlias1.stringValue, new Variable(object1));
-					}
-					if (objectAlias2.type.equals(ASTValue.Type.STRING)) {
-						environment.addToCurrentScope(objectAlias2.stringValue, new Variable(object2));
-					}
-					stmtList.eval(environment);
-					environment.popScope();
-				}
-			}
-		}
-		return returnVal;
+		String alias1 = aliasName(objectAlias1);
+		String alias2 = aliasName(objectAlias2);
+		int[][] offsets = getOffsets(direction.directionValue);
+		return (environment, inheritedStmts) -> {
+			ASTValue subject1Value = subject1.execute(environment, null);
+			ASTValue subject2Value = subject2.execute(environment, null);
+			checkAliases(alias1, alias2);
+			
+			boolean matched = evalNearbyPairs(environment, subject1Value, alias1, subject2Value, alias2, offsets, compiledBody(inheritedStmts), scopeLayoutOf((AST) inheritedStmts));
+			return new ASTValue(matched);
+		};
+	}
+	
+	@Override
+	protected int[] getAliasPositions() {
+		return new int[] {1, 4};
 	}
 }
\ No newline at end of file
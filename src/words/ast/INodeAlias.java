@@ -17,4 +17,9 @@ public class INodeAlias extends INode {
 			return new ASTValue(ASTValue.Type.NOTHING);
 		}
 	}
+	
+	@Override
+	public ASTValue constantValue() {
+		return children.size() == 0 ? new ASTValue(ASTValue.Type.NOTHING) : children.get(0).constantValue();
+	}
 }
\ No newline at end of file
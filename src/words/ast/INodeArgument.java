@@ -23,4 +23,18 @@ public class INodeArgument extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		String argumentName = constantName(children.get(0));
+		Executable valueExpression = children.get(1).getExecutable();
+		if (argumentName == null)
+			return super.compile();
+		
+		return (environment, inherited) -> {
+			Scope evaluatedArguments = (Scope) inherited;
+			evaluatedArguments.variables.put(argumentName, valueExpression.execute(environment, null).toWordsProperty());
+			return null;
+		};
+	}
 }
\ No newline at end of file
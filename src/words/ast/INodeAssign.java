@@ -24,4 +24,23 @@ public class INodeAssign extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable objectExpression = children.get(0).getExecutable();
+		String propertyName = constantName(children.get(1));
+		Executable valueExpression = children.get(2).getExecutable();
+		if (propertyName == null)
+			return super.compile();
+		
+		PropertyCache cache = new PropertyCache(propertyName);
+		return (environment, inherited) -> {
+			WordsObject obj = objectExpression.execute(environment, null).objValue;
+			assert obj != null : "Obj was null when it shouldn't have been.";
+			
+			obj.setProperty(cache, valueExpression.execute(environment, null).toWordsProperty());
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -1,25 +1,183 @@
 package words.ast;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 
 import words.environment.*;
 import words.exceptions.*;
 
 public abstract class INodeBasicActionPredicate extends INode {
-	
 	public INodeBasicActionPredicate(Object... children) {
 		super(children);
 	}
 	
-	protected HashSet<WordsObject> getObjectsToCheck(ASTValue subject, Environment environment) throws WordsClassNotFoundException {
-			HashSet<WordsObject> objectsToCheck = new HashSet<WordsObject>();
+	/**
+	 * Returns the objects a subject refers to.  The result is a snapshot, since the statements run for each match may create objects.
+	 */
+	protected ArrayList<WordsObject> getObjectsToCheck(ASTValue subject, Environment environment) throws WordsClassNotFoundException {
+			ArrayList<WordsObject> objectsToCheck = new ArrayList<WordsObject>(1);
 			if (subject.type.equals(ASTValue.Type.STRING)) {
-				objectsToCheck = environment.getObjectsByClass(subject.stringValue);
+				objectsToCheck = environment.getObjectsSnapshotByClass(subject.stringValue);
 			} else if (subject.type.equals(ASTValue.Type.OBJ)) {
 				objectsToCheck.add(subject.objValue);
 			}
 			return objectsToCheck;
 	}
 	
+	/**
+	 * Returns the objects a subject refers to whose last action was of a given kind, which are the only ones a predicate
+	 * about that kind of action needs to check.  The result is a read-only snapshot, in creation order.
+	 */
+	protected List<WordsObject> getObjectsToCheck(ASTValue subject, Environment environment, ActionIndex.Kind kind) throws WordsClassNotFoundException {
+		if (subject.type.equals(ASTValue.Type.STRING)) {
+			return environment.getObjectsSnapshotByClass(subject.stringValue, kind);
+		} else {
+			return getObjectsToCheck(subject, environment);
+		}
+	}
+	
+	/**
+	 * Returns a live view of the objects a subject refers to, for membership tests.
+	 */
+	private Collection<WordsObject> getObjectsReferredTo(ASTValue subject, Environment environment) throws WordsClassNotFoundException {
+		if (subject.type.equals(ASTValue.Type.STRING)) {
+			return environment.getObjectsByClass(subject.stringValue);
+		} else if (subject.type.equals(ASTValue.Type.OBJ)) {
+			return Collections.singleton(subject.objValue);
+		} else {
+			return Collections.emptySet();
+		}
+	}
+	
+	/**
+	 * Returns the name an evaluated alias binds, or null if there is no alias.
+	 */
+	protected static String aliasName(ASTValue alias) {
+		return alias.type.equals(ASTValue.Type.STRING) ? alias.stringValue : null;
+	}
+	
+	/**
+	 * Throws an AliasException if both objects of a two-object predicate are given the same alias.
+	 */
+	protected static void checkAliases(String alias1, String alias2) throws AliasException {
+		if (alias1 != null && alias1.equals(alias2)) {
+			throw new AliasException();
+		}
+	}
+	
+	/**
+	 * Returns the compiled statement list passed to a compiled predicate as its inherited attribute.
+	 */
+	protected static Executable compiledBody(Object inheritedStmts) {
+		return ((AST) inheritedStmts).getExecutable();
+	}
+	
+	/**
+	 * Returns the names of the aliases this predicate gives to its matched objects.
+	 */
+	public ArrayList<String> getAliasNames() {
+		ArrayList<String> names = new ArrayList<String>();
+		for (int position : getAliasPositions()) {
+			String name = constantName(children.get(position));
+			if (name != null)
+				names.add(name);
+		}
+		return names;
+	}
+	
+	/**
+	 * Returns the positions of the alias nodes among this predicate's children.
+	 */
+	protected int[] getAliasPositions() {
+		return new int[] {1};
+	}
+	
+	/**
+	 * Runs the statement list of a predicate in a new scope in which the aliases, if any, refer to the matched objects.
+	 * The scope is laid out as given by the Resolver, if the statement list has been resolved.
+	 * The second alias and object are ignored if the second alias is null, as they are for one-object predicates.
+	 */
+	protected static void runBody(Environment environment, Executable body, ScopeLayout layout,
+			String alias1, WordsObject object1, String alias2, WordsObject object2) throws WordsRuntimeException {
+		boolean entered = enterBlock(environment, layout);
+		if (alias1 != null) {
+			environment.addToCurrentScope(alias1, new Variable(object1));
+		}
+		if (alias2 != null) {
+			environment.addToCurrentScope(alias2, new Variable(object2));
+		}
+		body.execute(environment, null);
+		if (entered)
+			environment.popScope();
+	}
+	
+	/**
+	 * Runs a statement list once for each pair of objects from two subjects where the second object is at one of the given
+	 * offsets from the first, and at least one of the two moved in this frame.
+	 * 
+	 * Only the cells at the given offsets are examined, but pairs are visited in the same order as comparing every object of the
+	 * first subject against every object of the second: the second objects are taken in creation order, objects created by the
+	 * statement list are skipped, and the nearby objects are looked up again whenever the statement list moves an object.
+	 * 
+	 * @return whether the statement list was run at least once
+	 */
+	protected boolean evalNearbyPairs(Environment environment, ASTValue subject1, String alias1, ASTValue subject2, String alias2,
+			int[][] offsets, Executable body, ScopeLayout layout) throws WordsRuntimeException {
+		ArrayList<WordsObject> objectsToCheck1 = getObjectsToCheck(subject1, environment);
+		Collection<WordsObject> objects2 = getObjectsReferredTo(subject2, environment);
+		long creationLimit = environment.getNextCreationOrder();
+		SpatialIndex spatialIndex = environment.getSpatialIndex();
+		ArrayList<WordsObject> nearby = new ArrayList<WordsObject>();
+		boolean matched = false;
+		
+		for (WordsObject object1 : objectsToCheck1) {
+			long lastVisited = -1;
+			int modificationCount = spatialIndex.getModificationCount();
+			findNearby(spatialIndex, object1, objects2, offsets, lastVisited, creationLimit, nearby);
+			
+			for (int i = 0; i < nearby.size(); i++) {
+				WordsObject object2 = nearby.get(i);
+				lastVisited = object2.getCreationOrder();
+				matched = true;
+				
+				runBody(environment, body, layout, alias1, object1, alias2, object2);
+				
+				// If the statements moved anything, the remaining pairs must be found again from the current positions
+				if (spatialIndex.getModificationCount() != modificationCount) {
+					modificationCount = spatialIndex.getModificationCount();
+					findNearby(spatialIndex, object1, objects2, offsets, lastVisited, creationLimit, nearby);
+					i = -1;
+				}
+			}
+		}
+		
+		return matched;
+	}
+	
+	/**
+	 * Fills a list with the objects at the given offsets from an object that pair with it, sorted by creation order.
+	 */
+	private void findNearby(SpatialIndex spatialIndex, WordsObject object1, Collection<WordsObject> objects2, int[][] offsets,
+			long lastVisited, long creationLimit, ArrayList<WordsObject> nearby) {
+		nearby.clear();
+		Position p = object1.getCurrentPosition();
+		boolean moved1 = object1.movedInThisFrame();
+		
+		for (int[] offset : offsets) {
+			for (WordsObject object2 : spatialIndex.getObjectsAt(p.x + offset[0], p.y + offset[1])) {
+				long creationOrder = object2.getCreationOrder();
+				if (object2 != object1 && creationOrder > lastVisited && creationOrder < creationLimit
+						&& (moved1 || object2.movedInThisFrame()) && objects2.contains(object2)) {
+					nearby.add(object2);
+				}
+			}
+		}
+		
+		if (nearby.size() > 1)
+			Collections.sort(nearby, WordsObject.BY_CREATION_ORDER);
+	}
+	
 	public abstract ASTValue eval(Environment environment, Object inherited) throws WordsRuntimeException;
 }
@@ -26,4 +26,29 @@ public class INodeCreateLocalVariable extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		String varName = constantName(children.get(0));
+		Executable valueExpression = children.get(1).getExecutable();
+		if (varName == null)
+			return super.compile();
+		
+		return (environment, inherited) -> {
+			ASTValue rawValue = valueExpression.execute(environment, null);
+			Variable value = null;
+			
+			if (rawValue.type == ASTValue.Type.NUM) {
+				value = new Variable(rawValue.numValue);
+			} else if (rawValue.type == ASTValue.Type.STRING) {
+				value = new Variable(rawValue.stringValue);
+			} else {
+				throw new InvalidLocalVariableException();
+			}
+			
+			environment.createLocalVariable(varName, value);
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -10,8 +10,42 @@ public class INodeEquals extends INode {
 
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
-		ASTValue lhs = children.get(0).eval(environment);
-		ASTValue rhs = children.get(1).eval(environment);
+		return equals(children.get(0).eval(environment), children.get(1).eval(environment));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		if (children.get(0).getNumExecutable() != null && children.get(1).getNumExecutable() != null) {
+			BooleanExecutable value = getBooleanExecutable();
+			return (environment, inherited) -> new ASTValue(value.execute(environment));
+		}
+		
+		return new EqualsOperator(lhs, rhs);
+	}
+	
+	@Override
+	protected BooleanExecutable compileBoolean() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		Executable equals = new EqualsOperator(lhs, rhs);
+		NumExecutable lhsNum = children.get(0).getNumExecutable();
+		NumExecutable rhsNum = children.get(1).getNumExecutable();
+		if (lhsNum == null || rhsNum == null)
+			return environment -> equals.execute(environment, null).booleanValue;
+		
+		// Compare numbers without boxing them, unless an operand turns out not to be a number
+		return environment -> {
+			try {
+				return lhsNum.execute(environment) == rhsNum.execute(environment);
+			} catch (NotANumber e) {
+				return equals.execute(environment, null).booleanValue;
+			}
+		};
+	}
+	
+	private static ASTValue equals(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
 		
 		// The special type Nothing is equal only to Nothing
 		if ((lhs.type == ASTValue.Type.NOTHING && rhs.type != ASTValue.Type.NOTHING) || 
@@ -66,4 +100,60 @@ public class INodeEquals extends INode {
 				throw new AssertionError("Attempted to evaluate relational operator on ValueType " + lhs.type);			
 		}
 	}
+	
+	/**
+	 * Equality specialized to numbers, strings or objects.
+	 */
+	private static final class EqualsOperator extends SpecializingOperator {
+		private static final int NUMBERS = 1;
+		private static final int STRINGS = 2;
+		private static final int OBJECTS = 3;
+		
+		EqualsOperator(Executable lhs, Executable rhs) {
+			super(lhs, rhs);
+		}
+		
+		@Override
+		protected int specialize(ASTValue lhs, ASTValue rhs) {
+			if (lhs.type != rhs.type)
+				return GENERIC;
+			
+			switch (lhs.type) {
+				case NUM:
+					return NUMBERS;
+				case STRING:
+					return STRINGS;
+				case OBJ:
+					return OBJECTS;
+				default:
+					return GENERIC;
+			}
+		}
+		
+		@Override
+		protected ASTValue executeSpecialized(int specialization, ASTValue lhs, ASTValue rhs) {
+			switch (specialization) {
+				case NUMBERS:
+					if (lhs.type == ASTValue.Type.NUM && rhs.type == ASTValue.Type.NUM)
+						return new ASTValue(lhs.numValue == rhs.numValue);
+					break;
+				case STRINGS:
+					// Strings of the same type are compared as strings, even if they hold numbers
+					if (lhs.type == ASTValue.Type.STRING && rhs.type == ASTValue.Type.STRING)
+						return new ASTValue(lhs.stringValue.equals(rhs.stringValue));
+					break;
+				case OBJECTS:
+					if (lhs.type == ASTValue.Type.OBJ && rhs.type == ASTValue.Type.OBJ)
+						return new ASTValue(lhs.objValue == rhs.objValue);
+					break;
+			}
+			
+			return null;
+		}
+		
+		@Override
+		protected ASTValue executeGeneric(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
+			return INodeEquals.equals(lhs, rhs);
+		}
+	}
 }
\ No newline at end of file
@@ -10,8 +10,6 @@ public class INodeExit extends INode {
 
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
-		System.exit(0);
-		
-		return null;
+		throw new WordsExitException();
 	}
 }
\ No newline at end of file
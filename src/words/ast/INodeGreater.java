@@ -9,10 +9,7 @@ public class INodeGreater extends INodeRelOp {
 	}
 
 	@Override
-	public ASTValue eval(Environment environment) throws WordsRuntimeException {
-		ASTValue lhs = children.get(0).eval(environment);
-		ASTValue rhs = children.get(1).eval(environment);
-		
+	protected ASTValue compare(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
 		checkRelOpArgTypes(lhs, rhs);
 		
 		// lhs and rhs are now the same type
@@ -25,4 +22,9 @@ public class INodeGreater extends INodeRelOp {
 				throw new AssertionError("Attempted to evaluate relational operator on ValueType " + lhs.type);			
 		}
 	}	
+	
+	@Override
+	protected boolean compareNumbers(double lhs, double rhs) {
+		return lhs > rhs;
+	}
 }
\ No newline at end of file
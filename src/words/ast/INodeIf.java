@@ -23,4 +23,21 @@ public class INodeIf extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		BooleanExecutable predicate = children.get(0).getBooleanExecutable();
+		Executable statementList = children.get(1).getExecutable();
+		ScopeLayout layout = scopeLayoutOf(children.get(1));
+		return (environment, inherited) -> {
+			if (predicate.execute(environment)) {
+				boolean entered = enterBlock(environment, layout);
+				statementList.execute(environment, null);
+				if (entered)
+					environment.popScope();
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package words.ast;
 
-import java.util.HashSet;
-
 import words.environment.*;
 import words.exceptions.*;
 
@@ -24,25 +22,46 @@ public class INodeMovesPredicate extends INodeBasicActionPredicate {
 		
 		INodeStatementList stmtList = (INodeStatementList) inheritedStmts;
 		
-		HashSet<WordsObject> objectsToCheck = getObjectsToCheck(subject, environment);
-		ASTValue returnVal = new ASTValue(false);
+		return new ASTValue(matchMoves(environment, subject, aliasName(objectAlias), directionFilter(moveDirection), stmtList::eval, null));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable subject = children.get(0).getExecutable();
+		ASTValue objectAlias = children.get(1).constantValue();
+		ASTValue moveDirection = children.get(2) == null ? null : children.get(2).constantValue();
+		if (objectAlias == null || (children.get(2) != null && moveDirection == null))
+			return super.compile();
+		
+		String alias = aliasName(objectAlias);
+		Direction direction = directionFilter(moveDirection);
+		return (environment, inheritedStmts) ->
+			new ASTValue(matchMoves(environment, subject.execute(environment, null), alias, direction, compiledBody(inheritedStmts), scopeLayoutOf((AST) inheritedStmts)));
+	}
+	
+	/**
+	 * Returns the direction a move must have to match, or null if a move in any direction matches.
+	 */
+	private static Direction directionFilter(ASTValue moveDirection) {
+		if (moveDirection == null || moveDirection.directionValue == Direction.ANYWHERE) {
+			return null;
+		}
+		return moveDirection.directionValue;
+	}
+	
+	private boolean matchMoves(Environment environment, ASTValue subject, String alias, Direction direction, Executable body, ScopeLayout layout) throws WordsRuntimeException {
+		boolean matched = false;
 
-		for (WordsObject object : objectsToCheck) {
+		for (WordsObject object : getObjectsToCheck(subject, environment, ActionIndex.Kind.MOVE)) {
 			Action lastAction = object.getLastAction();
 			if (lastAction instanceof MoveAction) {
 				MoveAction lastMove = (MoveAction) lastAction;
-				if (moveDirection == null || moveDirection.directionValue == Direction.ANYWHERE 
-						|| moveDirection.directionValue.equals(lastMove.getDirection())) {
-					returnVal.booleanValue = true;
-					environment.pushNewScope();
-					if (objectAlias.type.equals(ASTValue.Type.STRING)) {
-						environment.addToCurrentScope(objectAlias.stringValue, new Variable(object));
-					}
-					stmtList.eval(environment);
-					environment.popScope();
+				if (direction == null || direction.equals(lastMove.getDirection())) {
+					matched = true;
+					runBody(environment, body, layout, alias, object, null, null);
 				}
 			}
 		}
-		return returnVal;
+		return matched;
 	}
-}
\ No newline at end of file
+}
@@ -18,4 +18,27 @@ public class INodeNegate extends INode {
 
 		return new ASTValue(value.numValue * -1);
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable operand = children.get(0).getExecutable();
+		return numericFirst(getNumExecutable(), (environment, inherited) -> {
+			ASTValue value = operand.execute(environment, null).tryCoerceTo(ASTValue.Type.NUM);
+			
+			if (value.type != ASTValue.Type.NUM) {
+				throw new InvalidTypeException(ASTValue.Type.NUM.toString(), value.type.toString());
+			}
+			
+			return new ASTValue(value.numValue * -1);
+		});
+	}
+	
+	@Override
+	protected NumExecutable compileNum() {
+		NumExecutable operand = children.get(0).getNumExecutable();
+		if (operand == null)
+			return null;
+		
+		return environment -> operand.execute(environment) * -1;
+	}
 }
\ No newline at end of file
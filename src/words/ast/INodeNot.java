@@ -16,4 +16,17 @@ public class INodeNot extends INode {
 		
 		return new ASTValue(!predicate.booleanValue);
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable predicate = children.get(0).getExecutable();
+		BooleanExecutable value = getBooleanExecutable();
+		return (environment, inherited) -> new ASTValue(value.execute(environment));
+	}
+	
+	@Override
+	protected BooleanExecutable compileBoolean() {
+		BooleanExecutable predicate = children.get(0).getBooleanExecutable();
+		return environment -> !predicate.execute(environment);
+	}
 }
\ No newline at end of file
@@ -24,4 +24,17 @@ public class INodeOr extends INode {
 		
 		return new ASTValue(lhs.booleanValue || rhs.booleanValue);
 	}
+	
+	@Override
+	protected Executable compile() {
+		BooleanExecutable value = getBooleanExecutable();
+		return (environment, inherited) -> new ASTValue(value.execute(environment));
+	}
+	
+	@Override
+	protected BooleanExecutable compileBoolean() {
+		BooleanExecutable lhs = children.get(0).getBooleanExecutable();
+		BooleanExecutable rhs = children.get(1).getBooleanExecutable();
+		return environment -> lhs.execute(environment) || rhs.execute(environment);
+	}
 }
\ No newline at end of file
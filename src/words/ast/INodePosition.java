@@ -23,4 +23,24 @@ public class INodePosition extends INode {
 		
 		return new ASTValue(new Position(row.numValue, col.numValue));
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable rowExpression = children.get(0).getExecutable();
+		Executable colExpression = children.get(1).getExecutable();
+		return (environment, inherited) -> {
+			ASTValue row = rowExpression.execute(environment, null).tryCoerceTo(ASTValue.Type.NUM);
+			ASTValue col = colExpression.execute(environment, null).tryCoerceTo(ASTValue.Type.NUM);
+			
+			if (row.type != ASTValue.Type.NUM) {
+				throw new InvalidTypeException(ASTValue.Type.NUM.toString(), row.type.toString());
+			}
+			
+			if (col.type != ASTValue.Type.NUM) {
+				throw new InvalidTypeException(ASTValue.Type.NUM.toString(), col.type.toString());
+			}
+			
+			return new ASTValue(new Position(row.numValue, col.numValue));
+		};
+	}
 }
\ No newline at end of file
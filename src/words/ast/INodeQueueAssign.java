@@ -25,4 +25,24 @@ public class INodeQueueAssign extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable referenceObject = children.get(0).getExecutable();
+		AST propertyList = children.get(1);
+		boolean doNow = children.get(2) != null;
+		
+		return (environment, inherited) -> {
+			PropertyAssignAction action = new PropertyAssignAction(environment.getCurrentScope(), propertyList);
+			WordsObject object = referenceObject.execute(environment, null).objValue;
+			
+			if (doNow) {
+				object.enqueueActionAtFront(action);
+			} else {
+				object.enqueueAction(action);
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
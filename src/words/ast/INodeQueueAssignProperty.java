@@ -24,4 +24,19 @@ public class INodeQueueAssignProperty extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		String propertyName = constantName(children.get(0));
+		Executable valueExpression = children.get(1).getExecutable();
+		if (propertyName == null)
+			return super.compile();
+		
+		PropertyCache cache = new PropertyCache(propertyName);
+		return (environment, inherited) -> {
+			WordsObject object = (WordsObject) inherited;
+			object.setProperty(cache, valueExpression.execute(environment, null).toWordsProperty());
+			return null;
+		};
+	}
 }
\ No newline at end of file
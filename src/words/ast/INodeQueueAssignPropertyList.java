@@ -22,4 +22,20 @@ public class INodeQueueAssignPropertyList extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable[] executables = new Executable[children.size()];
+		for (int i = 0; i < executables.length; i++) {
+			executables[i] = children.get(i).getExecutable();
+		}
+		
+		return (environment, inherited) -> {
+			for (Executable executable : executables) {
+				executable.execute(environment, inherited);
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
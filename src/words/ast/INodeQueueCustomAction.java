@@ -32,4 +32,35 @@ public class INodeQueueCustomAction extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected String variableName() {
+		return isEmptyReferenceList(children.get(0)) ? constantName(children.get(1)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable referenceObject = compileReferenceObject(children.get(0));
+		Binding binding = variableBinding;
+		String identifier = constantName(children.get(1));
+		String actionName = constantName(children.get(2));
+		AST argumentList = children.get(3);
+		boolean doNow = children.get(4) != null;
+		if (identifier == null || actionName == null)
+			return super.compile();
+		
+		return (environment, inherited) -> {
+			WordsObject object = lookupObject(environment, referenceObject, identifier, binding);
+			CustomActionDefinition actionDefinition = object.getWordsClass().getCustomActionDefinition(actionName);
+			CustomAction action = new CustomAction(environment.getCurrentScope(), actionDefinition, argumentList);
+			
+			if (doNow) {
+				object.enqueueActionAtFront(action);
+			} else {
+				object.enqueueAction(action);
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -24,7 +24,8 @@ public class INodeQueueMove extends INode {
 		
 		assert(direction.type == ASTValue.Type.DIRECTION) : "Expected direction";
 		
-		MoveAction action = new MoveAction(environment.getCurrentScope(), direction.directionValue, distance);
+		Direction directionValue = Direction.resolve(direction.directionValue, environment.getRandom());
+		MoveAction action = new MoveAction(environment.getCurrentScope(), directionValue, distance);
 		
 		if (doNow == null) {
 			object.enqueueAction(action);
@@ -34,4 +35,37 @@ public class INodeQueueMove extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected String variableName() {
+		return isEmptyReferenceList(children.get(0)) ? constantName(children.get(1)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable referenceObject = compileReferenceObject(children.get(0));
+		Binding binding = variableBinding;
+		String identifier = constantName(children.get(1));
+		ASTValue direction = children.get(2).constantValue();
+		AST distance = children.get(3);
+		boolean doNow = children.get(4) != null;
+		if (identifier == null || direction == null)
+			return super.compile();
+		
+		Direction directionValue = direction.directionValue;
+		assert(direction.type == ASTValue.Type.DIRECTION) : "Expected direction";
+		
+		return (environment, inherited) -> {
+			WordsObject object = lookupObject(environment, referenceObject, identifier, binding);
+			MoveAction action = new MoveAction(environment.getCurrentScope(), Direction.resolve(directionValue, environment.getRandom()), distance);
+			
+			if (doNow) {
+				object.enqueueActionAtFront(action);
+			} else {
+				object.enqueueAction(action);
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
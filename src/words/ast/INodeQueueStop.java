@@ -23,4 +23,23 @@ public class INodeQueueStop extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected String variableName() {
+		return isEmptyReferenceList(children.get(0)) ? constantName(children.get(1)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable referenceObject = compileReferenceObject(children.get(0));
+		Binding binding = variableBinding;
+		String identifier = constantName(children.get(1));
+		if (identifier == null)
+			return super.compile();
+		
+		return (environment, inherited) -> {
+			lookupObject(environment, referenceObject, identifier, binding).clearActionQueue();
+			return null;
+		};
+	}
 }
\ No newline at end of file
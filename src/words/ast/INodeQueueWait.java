@@ -31,4 +31,33 @@ public class INodeQueueWait extends INode {
 
 		return null;
 	}
+	
+	@Override
+	protected String variableName() {
+		return isEmptyReferenceList(children.get(0)) ? constantName(children.get(1)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable referenceObject = compileReferenceObject(children.get(0));
+		Binding binding = variableBinding;
+		String identifier = constantName(children.get(1));
+		AST lengthExpression = children.get(2);
+		boolean doNow = children.get(3) != null;
+		if (identifier == null)
+			return super.compile();
+		
+		return (environment, inherited) -> {
+			WordsObject object = lookupObject(environment, referenceObject, identifier, binding);
+			WaitAction action = new WaitAction(environment.getCurrentScope(), lengthExpression);
+			
+			if (doNow) {
+				object.enqueueActionAtFront(action);
+			} else {
+				object.enqueueAction(action);
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
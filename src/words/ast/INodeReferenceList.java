@@ -38,4 +38,50 @@ public class INodeReferenceList extends INode {
 		
 		return new ASTValue(currentObject);
 	}
+	
+	@Override
+	protected String variableName() {
+		return children.size() == 0 ? null : constantName(children.get(0));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Binding binding = variableBinding;
+		String[] names = new String[children.size()];
+		for (int i = 0; i < names.length; i++) {
+			names[i] = constantName(children.get(i));
+			if (names[i] == null)
+				return super.compile();
+		}
+		
+		if (names.length == 0) {
+			return (environment, inherited) -> new ASTValue(ASTValue.Type.NOTHING);
+		}
+		
+		// Each property after the first name gets its own cache, since each sees objects of different shapes
+		PropertyCache[] caches = new PropertyCache[names.length];
+		for (int i = 1; i < names.length; i++) {
+			caches[i] = new PropertyCache(names[i]);
+		}
+		
+		return (environment, inherited) -> {
+			Variable firstProperty = lookupVariable(environment, names[0], binding);
+			
+			if (firstProperty.type != Variable.VariableType.OBJECT) {
+				throw new ReferenceException(names[0], firstProperty.type);
+			}
+			
+			WordsObject currentObject = firstProperty.objProperty;
+			
+			for (int i = 1; i < names.length; i++) {
+				Variable prop = currentObject.getProperty(caches[i]);
+				if (prop.type != Variable.VariableType.OBJECT) {
+					throw new ReferenceException(names[i], prop.type);
+				}
+				currentObject = prop.objProperty;
+			}
+			
+			return new ASTValue(currentObject);
+		};
+	}
 }
\ No newline at end of file
@@ -1,11 +1,58 @@
 package words.ast;
 
+import words.environment.*;
 import words.exceptions.*;
 
 public abstract class INodeRelOp extends INode {
 	public INodeRelOp(Object... children) {
 		super(children);
 	}
+	
+	@Override
+	public ASTValue eval(Environment environment) throws WordsRuntimeException {
+		return compare(children.get(0).eval(environment), children.get(1).eval(environment));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		if (children.get(0).getNumExecutable() != null && children.get(1).getNumExecutable() != null) {
+			BooleanExecutable value = getBooleanExecutable();
+			return (environment, inherited) -> new ASTValue(value.execute(environment));
+		}
+		
+		return (environment, inherited) -> compare(lhs.execute(environment, null), rhs.execute(environment, null));
+	}
+	
+	@Override
+	protected BooleanExecutable compileBoolean() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		NumExecutable lhsNum = children.get(0).getNumExecutable();
+		NumExecutable rhsNum = children.get(1).getNumExecutable();
+		if (lhsNum == null || rhsNum == null)
+			return environment -> compare(lhs.execute(environment, null), rhs.execute(environment, null)).booleanValue;
+		
+		// Compare numbers without boxing them, unless an operand turns out not to be a number
+		return environment -> {
+			try {
+				return compareNumbers(lhsNum.execute(environment), rhsNum.execute(environment));
+			} catch (NotANumber e) {
+				return compare(lhs.execute(environment, null), rhs.execute(environment, null)).booleanValue;
+			}
+		};
+	}
+	
+	/**
+	 * Applies the relational operator to the values of its two sides.
+	 */
+	protected abstract ASTValue compare(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException;
+	
+	/**
+	 * Applies the relational operator to two numbers.
+	 */
+	protected abstract boolean compareNumbers(double lhs, double rhs);
 
 	/**
 	 * Checks that the arguments to a relational operator <, <=, >, >= are appropriate and throws an appropriate
@@ -17,4 +64,4 @@ public abstract class INodeRelOp extends INode {
 			throw new OperatorTypeMismatchException(lhs.type.toString(), rhs.type.toString());
 		}
 	}
-}
\ No newline at end of file
+}
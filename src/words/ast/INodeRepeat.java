@@ -25,4 +25,27 @@ public class INodeRepeat extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable timesExpression = children.get(0).getExecutable();
+		Executable statementList = children.get(1).getExecutable();
+		ScopeLayout layout = scopeLayoutOf(children.get(1));
+		return (environment, inherited) -> {
+			ASTValue times = timesExpression.execute(environment, null).tryCoerceTo(ASTValue.Type.NUM);
+			
+			if (times.type != ASTValue.Type.NUM) {
+				throw new InvalidTypeException(ASTValue.Type.NUM.toString(), times.type.toString());
+			}
+			
+			for (int i = 0; i < times.numValue; i++) {
+				boolean entered = enterBlock(environment, layout);
+				statementList.execute(environment, null);
+				if (entered)
+					environment.popScope();
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -32,17 +32,85 @@ public class INodeRetrieveProperty extends INode {
 		ASTValue id = children.get(1).eval(environment);
 		String propName = id.stringValue;
 		
-		Variable wordsProp = obj.getProperty(propName);
+		return valueOf(obj.getProperty(propName));
+	}
+	
+	@Override
+	protected String variableName() {
+		return isEmptyReferenceList(children.get(0)) ? constantName(children.get(1)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable refList = children.get(0).getExecutable();
+		String propName = constantName(children.get(1));
+		Binding binding = variableBinding;
+		if (propName == null)
+			return super.compile();
+		
+		// A property with no reference list is a variable, so skip evaluating the empty list altogether
+		if (isEmptyReferenceList(children.get(0))) {
+			return (environment, inherited) -> new ASTValue(lookupVariable(environment, propName, binding));
+		}
+		
+		PropertyCache cache = new PropertyCache(propName);
+		return (environment, inherited) -> {
+			ASTValue refListValue = refList.execute(environment, null);
+			if (refListValue.type == ASTValue.Type.NOTHING) {
+				return new ASTValue(lookupVariable(environment, propName, binding));
+			}
+			
+			assert refListValue.objValue != null : "Obj was null when it shouldn't have been.";
+			return valueOf(refListValue.objValue.getProperty(cache));
+		};
+	}
+	
+	@Override
+	protected NumExecutable compileNum() {
+		Executable refList = children.get(0).getExecutable();
+		String propName = constantName(children.get(1));
+		Binding binding = variableBinding;
+		if (propName == null)
+			return null;
+		
+		if (isEmptyReferenceList(children.get(0))) {
+			return environment -> numberOf(lookupVariable(environment, propName, binding));
+		}
+		
+		PropertyCache cache = new PropertyCache(propName);
+		return environment -> {
+			ASTValue refListValue = refList.execute(environment, null);
+			if (refListValue.type == ASTValue.Type.NOTHING) {
+				return numberOf(lookupVariable(environment, propName, binding));
+			}
+			
+			return numberOf(refListValue.objValue.getProperty(cache));
+		};
+	}
+	
+	/**
+	 * Returns the value of a property that holds a number, or throws NotANumber if it holds anything else.
+	 */
+	private static double numberOf(Variable property) {
+		if (property.type != Variable.VariableType.NUM)
+			throw NotANumber.INSTANCE;
+		return property.numProperty;
+	}
+	
+	/**
+	 * Converts the value of a property to an ASTValue.
+	 */
+	private static ASTValue valueOf(Variable property) {
 		ASTValue astValue = null;
-		switch (wordsProp.type) {
+		switch (property.type) {
 			case STRING:
-				astValue = new ASTValue(wordsProp.stringProperty);
+				astValue = new ASTValue(property.stringProperty);
 				break;
 			case NUM:
-				astValue = new ASTValue(wordsProp.numProperty);
+				astValue = new ASTValue(property.numProperty);
 				break;
 			case OBJECT:
-				astValue = new ASTValue(wordsProp.objProperty);
+				astValue = new ASTValue(property.objProperty);
 				break;
 			case NOTHING:
 				astValue = new ASTValue(ASTValue.Type.NOTHING);
@@ -53,5 +121,4 @@ public class INodeRetrieveProperty extends INode {
 		
 		return astValue;
 	}
-
 }
\ No newline at end of file
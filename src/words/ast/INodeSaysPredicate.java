@@ -1,7 +1,5 @@
 package words.ast;
 
-import java.util.HashSet;
-
 import words.environment.*;
 import words.exceptions.*;
 
@@ -24,21 +22,35 @@ public class INodeSaysPredicate extends INodeBasicActionPredicate {
 		
 		INodeStatementList stmtList = (INodeStatementList) inheritedStmts;
 		
-		HashSet<WordsObject> objectsToCheck = getObjectsToCheck(subject, environment);
-		ASTValue returnVal = new ASTValue(false);
+		return new ASTValue(matchSays(environment, subject, aliasName(objectAlias), sayStatement.stringValue, stmtList::eval, null));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable subject = children.get(0).getExecutable();
+		ASTValue objectAlias = children.get(1).constantValue();
+		Executable sayStatement = children.get(2).getExecutable();
+		if (objectAlias == null)
+			return super.compile();
+		
+		String alias = aliasName(objectAlias);
+		return (environment, inheritedStmts) -> {
+			ASTValue subjectValue = subject.execute(environment, null);
+			String message = sayStatement.execute(environment, null).stringValue;
+			return new ASTValue(matchSays(environment, subjectValue, alias, message, compiledBody(inheritedStmts), scopeLayoutOf((AST) inheritedStmts)));
+		};
+	}
+	
+	private boolean matchSays(Environment environment, ASTValue subject, String alias, String message, Executable body, ScopeLayout layout) throws WordsRuntimeException {
+		boolean matched = false;
 		
-		for (WordsObject object : objectsToCheck) {
+		for (WordsObject object : getObjectsToCheck(subject, environment, ActionIndex.Kind.SAY)) {
 			Action lastAction = object.getLastAction();
-			if (lastAction instanceof SayAction && object.getCurrentMessage().equals(sayStatement.stringValue)) {
-				returnVal.booleanValue = true;
-				environment.pushNewScope();
-				if (objectAlias.type.equals(ASTValue.Type.STRING)) {
-					environment.addToCurrentScope(objectAlias.stringValue, new Variable(object));
-				}
-				stmtList.eval(environment);
-				environment.popScope();
+			if (lastAction instanceof SayAction && object.getCurrentMessage().equals(message)) {
+				matched = true;
+				runBody(environment, body, layout, alias, object, null, null);
 			}
 		}
-		return returnVal;
+		return matched;
 	}
-}
\ No newline at end of file
+}
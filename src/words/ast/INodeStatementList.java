@@ -1,13 +1,25 @@
 package words.ast;
 
-import words.Console;
 import words.environment.*;
 import words.exceptions.*;
 
 public class INodeStatementList extends INode {
+	private ScopeLayout scopeLayout;		// The layout of the scope this list runs in as a block, once resolved
+	
 	public INodeStatementList(Object... children) {
 		super(children);
 	}
+	
+	/**
+	 * Returns the layout the Resolver gave the scope this list runs in as a block, or null if it has not been resolved.
+	 */
+	public ScopeLayout getScopeLayout() {
+		return scopeLayout;
+	}
+	
+	public void setScopeLayout(ScopeLayout scopeLayout) {
+		this.scopeLayout = scopeLayout;
+	}
 
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
@@ -23,11 +35,7 @@ public class INodeStatementList extends INode {
 			try {
 				children.get(i).eval(environment);
 			} catch (WordsRuntimeException e) {
-				// Add the AST to the exception, and then print it.
-				WordsProgramException decoratedException = new WordsProgramException(children.get(i), e);
-				System.err.println("\r");
-				System.err.println(decoratedException);
-				Console.showPrompt();
+				reportError(environment, children.get(i), e);
 			}
 			
 			assert startingScopeLevel == environment.getScopeDepth() : "Scope error during statement list";
@@ -35,4 +43,40 @@ public class INodeStatementList extends INode {
 
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		Executable[] statements = new Executable[children.size()];
+		for (int i = 0; i < statements.length; i++) {
+			statements[i] = compileOptional(children.get(i));
+		}
+		
+		return (environment, inherited) -> {
+			for (int i = 0; i < statements.length; i++) {
+				int startingScopeLevel = environment.getScopeDepth();
+				
+				if (statements[i] == null)
+					continue;
+				
+				try {
+					statements[i].execute(environment, null);
+				} catch (WordsRuntimeException e) {
+					reportError(environment, children.get(i), e);
+				}
+				
+				assert startingScopeLevel == environment.getScopeDepth() : "Scope error during statement list";
+			}
+			
+			return null;
+		};
+	}
+	
+	/**
+	 * Reports an error in one statement of the list, so that the remaining statements can still be run.
+	 */
+	private static void reportError(Environment environment, AST statement, WordsRuntimeException e) {
+		// Add the AST to the exception, and then print it.
+		WordsProgramException decoratedException = new WordsProgramException(statement, e);
+		environment.getConsole().reportError(decoratedException);
+	}
 }
\ No newline at end of file
@@ -28,4 +28,28 @@ public class INodeSubject extends INode {
 			return new ASTValue(object);
 		}
 	}
+	
+	@Override
+	protected String variableName() {
+		return children.get(0) == null && isEmptyReferenceList(children.get(1)) ? constantName(children.get(2)) : null;
+	}
+	
+	@Override
+	protected Executable compile() {
+		if (children.get(0) != null) {
+			String className = constantName(children.get(0));
+			if (className == null)
+				return super.compile();
+			
+			return (environment, inherited) -> new ASTValue(className);
+		}
+		
+		Executable referenceObject = compileReferenceObject(children.get(1));
+		String identifier = constantName(children.get(2));
+		Binding binding = variableBinding;
+		if (identifier == null)
+			return super.compile();
+		
+		return (environment, inherited) -> new ASTValue(lookupObject(environment, referenceObject, identifier, binding));
+	}
 }
\ No newline at end of file
@@ -10,8 +10,29 @@ public class INodeSubtract extends INode {
 
 	@Override
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
-		ASTValue lhs = children.get(0).eval(environment).tryCoerceTo(ASTValue.Type.NUM);
-		ASTValue rhs = children.get(1).eval(environment).tryCoerceTo(ASTValue.Type.NUM);
+		return subtract(children.get(0).eval(environment), children.get(1).eval(environment));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable lhs = children.get(0).getExecutable();
+		Executable rhs = children.get(1).getExecutable();
+		return numericFirst(getNumExecutable(), (environment, inherited) -> subtract(lhs.execute(environment, null), rhs.execute(environment, null)));
+	}
+	
+	@Override
+	protected NumExecutable compileNum() {
+		NumExecutable lhsNum = children.get(0).getNumExecutable();
+		NumExecutable rhsNum = children.get(1).getNumExecutable();
+		if (lhsNum == null || rhsNum == null)
+			return null;
+		
+		return environment -> lhsNum.execute(environment) - rhsNum.execute(environment);
+	}
+	
+	private static ASTValue subtract(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException {
+		lhs.tryCoerceTo(ASTValue.Type.NUM);
+		rhs.tryCoerceTo(ASTValue.Type.NUM);
 
 		if ((lhs.type != ASTValue.Type.NUM) || (rhs.type != ASTValue.Type.NUM)) {
 			throw new WordsArithmeticException(lhs.type.toString(), rhs.type.toString());
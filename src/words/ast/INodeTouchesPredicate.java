@@ -1,11 +1,11 @@
 package words.ast;
 
-import java.util.HashSet;
-
 import words.environment.*;
 import words.exceptions.*;
 
 public class INodeTouchesPredicate extends INodeBasicActionPredicate {
+	private static final int[][] SAME_CELL = {{0, 0}};
+	
 	public INodeTouchesPredicate(Object... children) {
 		super(children);
 	}
@@ -25,33 +25,37 @@ public class INodeTouchesPredicate extends INodeBasicActionPredicate {
 		
 		INodeStatementList stmtList = (INodeStatementList) inheritedStmts;
 		
-		if (objectAlias1.type.equals(ASTValue.Type.STRING) 
-				&& objectAlias2.type.equals(ASTValue.Type.STRING)
-				&& objectAlias1.stringValue.equals(objectAlias2.stringValue)) {
-			throw new AliasException();
-		}
+		String alias1 = aliasName(objectAlias1);
+		String alias2 = aliasName(objectAlias2);
+		checkAliases(alias1, alias2);
 		
-		HashSet<WordsObject> objectsToCheck1 = getObjectsToCheck(subject1, environment);
-		HashSet<WordsObject> objectsToCheck2 = getObjectsToCheck(subject2, environment);
-		ASTValue returnVal = new ASTValue(false);
+		boolean matched = evalNearbyPairs(environment, subject1, alias1, subject2, alias2, SAME_CELL, stmtList::eval, null);
+		return new ASTValue(matched);
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable subject1 = children.get(0).getExecutable();
+		ASTValue objectAlias1 = children.get(1).constantValue();
+		Executable subject2 = children.get(2).getExecutable();
+		ASTValue objectAlias2 = children.get(3).constantValue();
+		if (objectAlias1 == null || objectAlias2 == null)
+			return super.compile();
 		
-		for (WordsObject object1: objectsToCheck1) {
-			for (WordsObject object2: objectsToCheck2) {
-				boolean objectsMoved = object1.movedInThisFrame() || object2.movedInThisFrame();
-				if (object1 != object2 && objectsMoved && object1.getCurrentPosition().equals(object2.getCurrentPosition())) {
-					returnVal.booleanValue = true;
-					environment.pushNewScope();
-					if (objectAlias1.type.equals(ASTValue.Type.STRING)) {
-						environment.addToCurrentScope(objectAlias1.stringValue, new Variable(object1));
-					}
-					if (objectAlias2.type.equals(ASTValue.Type.STRING)) {
-						environment.addToCurrentScope(objectAlias2.stringValue, new Variable(object2));
-					}
-					stmtList.eval(environment);
-					environment.popScope();
-				}
-			}
-		}
-		return returnVal;
+		String alias1 = aliasName(objectAlias1);
+		String alias2 = aliasName(objectAlias2);
+		return (environment, inheritedStmts) -> {
+			ASTValue subject1Value = subject1.execute(environment, null);
+			ASTValue subject2Value = subject2.execute(environment, null);
+			checkAliases(alias1, alias2);
+			
+			boolean matched = evalNearbyPairs(environment, subject1Value, alias1, subject2Value, alias2, SAME_CELL, compiledBody(inheritedStmts), scopeLayoutOf((AST) inheritedStmts));
+			return new ASTValue(matched);
+		};
+	}
+	
+	@Override
+	protected int[] getAliasPositions() {
+		return new int[] {1, 3};
 	}
 }
\ No newline at end of file
@@ -1,7 +1,5 @@
 package words.ast;
 
-import java.util.HashSet;
-
 import words.environment.*;
 import words.exceptions.*;
 
@@ -23,21 +21,31 @@ public class INodeWaitsPredicate extends INodeBasicActionPredicate {
 		
 		INodeStatementList stmtList = (INodeStatementList) inheritedStmts;
 		
-		HashSet<WordsObject> objectsToCheck = getObjectsToCheck(subject, environment);
-		ASTValue returnVal = new ASTValue(false);
+		return new ASTValue(matchWaits(environment, subject, aliasName(objectAlias), stmtList::eval, null));
+	}
+	
+	@Override
+	protected Executable compile() {
+		Executable subject = children.get(0).getExecutable();
+		ASTValue objectAlias = children.get(1).constantValue();
+		if (objectAlias == null)
+			return super.compile();
+		
+		String alias = aliasName(objectAlias);
+		return (environment, inheritedStmts) ->
+			new ASTValue(matchWaits(environment, subject.execute(environment, null), alias, compiledBody(inheritedStmts), scopeLayoutOf((AST) inheritedStmts)));
+	}
+	
+	private boolean matchWaits(Environment environment, ASTValue subject, String alias, Executable body, ScopeLayout layout) throws WordsRuntimeException {
+		boolean matched = false;
 
-		for (WordsObject object : objectsToCheck) {
+		for (WordsObject object : getObjectsToCheck(subject, environment, ActionIndex.Kind.WAIT)) {
 			Action lastAction = object.getLastAction();
 			if (lastAction instanceof WaitAction) {
-				returnVal.booleanValue = true;
-				environment.pushNewScope();
-				if (objectAlias.type.equals(ASTValue.Type.STRING)) {
-					environment.addToCurrentScope(objectAlias.stringValue, new Variable(object));
-				}
-				stmtList.eval(environment);
-				environment.popScope();
+				matched = true;
+				runBody(environment, body, layout, alias, object, null, null);
 			}
 		}
-		return returnVal;
+		return matched;
 	}
-}
\ No newline at end of file
+}
@@ -24,4 +24,21 @@ public class INodeWhile extends INode {
 		
 		return null;
 	}
+	
+	@Override
+	protected Executable compile() {
+		BooleanExecutable conditional = children.get(0).getBooleanExecutable();
+		Executable statementList = children.get(1).getExecutable();
+		ScopeLayout layout = scopeLayoutOf(children.get(1));
+		return (environment, inherited) -> {
+			while (conditional.execute(environment)) {
+				boolean entered = enterBlock(environment, layout);
+				statementList.execute(environment, null);
+				if (entered)
+					environment.popScope();
+			}
+			
+			return null;
+		};
+	}
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package words.ast;
 
+import words.exceptions.*;
 
 /**
  * An abstract syntax tree leaf node.
@@ -14,6 +15,18 @@ public abstract class LNode extends AST {
 	 */
 	protected abstract String valueAsString();
 	
+	/**
+	 * The value of a leaf never depends on the environment.
+	 */
+	@Override
+	public ASTValue constantValue() {
+		try {
+			return eval(null);
+		} catch (WordsRuntimeException e) {
+			return null;
+		}
+	}
+	
 	@Override
 	public void dump(int level) {
 		for (int i = 0; i < level; i++)
@@ -22,6 +35,12 @@ public abstract class LNode extends AST {
 		System.err.println(this.lineNumber + ": " + this.getClass().toString() + ": " + valueAsString());
 	}
 	
+	@Override
+	public String structure() {
+		String value = String.valueOf(valueAsString());
+		return getClass().getSimpleName() + ":" + value.length() + ":" + value;
+	}
+	
 	@Override
 	public String toString() {
 		return "[" + this.getClass().toString() + ": " + valueAsString() + "]";
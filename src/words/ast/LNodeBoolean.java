@@ -20,5 +20,11 @@ public class LNodeBoolean extends LNode {
 	public ASTValue eval(Environment environment) throws WordsRuntimeException {
 		return new ASTValue(val);
 	}
+	
+	@Override
+	protected BooleanExecutable compileBoolean() {
+		boolean value = val;
+		return environment -> value;
+	}
 
 }
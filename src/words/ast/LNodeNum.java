@@ -22,4 +22,10 @@ public class LNodeNum extends LNode {
 	public ASTValue eval(Environment environment) {
 		return new ASTValue(this.num);
 	}
+	
+	@Override
+	protected NumExecutable compileNum() {
+		double value = num;
+		return environment -> value;
+	}
 }
\ No newline at end of file
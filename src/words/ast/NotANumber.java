@@ -0,0 +1,16 @@
+package words.ast;
+
+/**
+ * Thrown by a NumExecutable when an operand turns out not to be a number, telling the caller to fall back to the
+ * ordinary compiled form of the expression.  It is never seen outside the compiled code, so a single instance without a
+ * stack trace is shared.
+ */
+final class NotANumber extends RuntimeException {
+	private static final long serialVersionUID = 1L;
+	
+	static final NotANumber INSTANCE = new NotANumber();
+	
+	private NotANumber() {
+		super(null, null, false, false);
+	}
+}
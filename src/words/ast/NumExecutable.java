@@ -0,0 +1,22 @@
+package words.ast;
+
+import words.environment.*;
+import words.exceptions.*;
+
+/**
+ * The compiled form of a numeric expression, which computes its value as a double without allocating an ASTValue.
+ * 
+ * Only nodes whose value is a number whenever their operands are numbers have a NumExecutable.  Since Words is dynamically
+ * typed, an operand may still turn out not to be a number, in which case NotANumber is thrown and the caller falls back
+ * to executing the expression's ordinary compiled form, which applies the usual coercions and reports any errors.
+ */
+@FunctionalInterface
+public interface NumExecutable {
+	/**
+	 * Execute the compiled expression and return its numeric value.
+	 * 
+	 * @throws NotANumber if some operand is not a number
+	 * @throws WordsRuntimeException
+	 */
+	public double execute(Environment environment) throws WordsRuntimeException;
+}
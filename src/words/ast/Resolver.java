@@ -0,0 +1,160 @@
+package words.ast;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+
+import words.environment.*;
+
+/**
+ * A pass over a parsed statement that lays out the local scopes of its blocks and binds the variables it uses to slots.
+ * 
+ * Each block (the body of a conditional, loop, predicate listener or custom action) is given a ScopeLayout holding its
+ * aliases, parameters and the variables declared directly in it.  A variable reference is bound to the slots of the
+ * enclosing blocks that declare the name; since declaring a variable that already exists in an enclosing scope
+ * assigns to that variable instead, the slots are tried innermost first and the variable is looked up by name if none
+ * holds it.  Variables in the global scope are never bound, since global statements may be entered at any time.
+ */
+public class Resolver {
+	private ArrayList<ScopeLayout> blocks;		// Layouts of the enclosing blocks that have a scope of their own, innermost last
+	
+	private Resolver() {
+		blocks = new ArrayList<ScopeLayout>();
+	}
+	
+	/**
+	 * Resolves a statement that will be run in the global scope.
+	 */
+	public static void resolve(AST ast) {
+		new Resolver().visit(ast);
+	}
+	
+	private void visit(AST node) {
+		if (node == null)
+			return;
+		
+		// Anything already compiled must be compiled again to pick up the layouts and bindings
+		node.clearExecutable();
+		
+		if (!(node instanceof INode))
+			return;
+		INode inode = (INode) node;
+		
+		if (node instanceof INodeIf || node instanceof INodeWhile || node instanceof INodeRepeat) {
+			visit(inode.children.get(0));
+			visitBlock(inode.children.get(1), new ArrayList<String>(), false);
+		} else if (node instanceof INodeListener) {
+			// Listeners run their bodies from the global scope
+			ArrayList<ScopeLayout> enclosingBlocks = blocks;
+			blocks = new ArrayList<ScopeLayout>();
+			
+			AST predicate = inode.children.get(0);
+			visit(predicate);
+			if (predicate instanceof INodeBasicActionPredicate) {
+				visitBlock(inode.children.get(1), ((INodeBasicActionPredicate) predicate).getAliasNames(), false);
+			} else {
+				visit(inode.children.get(1));
+			}
+			
+			blocks = enclosingBlocks;
+		} else if (node instanceof INodeDefineCustomAction) {
+			// Custom actions run in a scope of their own whose parent is the global scope
+			ArrayList<ScopeLayout> enclosingBlocks = blocks;
+			blocks = new ArrayList<ScopeLayout>();
+			
+			ArrayList<String> names = new ArrayList<String>();
+			AST parameterList = inode.children.get(1);
+			if (parameterList instanceof INode) {
+				for (AST parameter : ((INode) parameterList).children) {
+					String name = parameter instanceof INode ? AST.constantName(((INode) parameter).children.get(0)) : null;
+					if (name != null)
+						names.add(name);
+				}
+			}
+			visitBlock(inode.children.get(2), names, true);
+			
+			blocks = enclosingBlocks;
+		} else {
+			String name = inode.variableName();
+			inode.variableBinding = name == null ? null : bind(name);
+			
+			for (AST child : inode.children) {
+				visit(child);
+			}
+		}
+	}
+	
+	/**
+	 * Lays out the scope of a block that starts out with the given names, and resolves the block within it.
+	 */
+	private void visitBlock(AST block, ArrayList<String> names, boolean hasReceiver) {
+		LinkedHashSet<String> declared = new LinkedHashSet<String>(names);
+		collectDeclarations(block, declared);
+		ScopeLayout layout = new ScopeLayout(declared, hasReceiver);
+		
+		if (block instanceof INodeStatementList) {
+			((INodeStatementList) block).setScopeLayout(layout);
+		}
+		
+		// A block that declares nothing does not get a scope of its own
+		if (!layout.isEmpty())
+			blocks.add(layout);
+		visit(block);
+		if (!layout.isEmpty())
+			blocks.remove(blocks.size() - 1);
+	}
+	
+	/**
+	 * Adds the names of the variables and objects declared directly in a block, but not in blocks nested in it.
+	 */
+	private static void collectDeclarations(AST node, LinkedHashSet<String> declared) {
+		if (!(node instanceof INode))
+			return;
+		INode inode = (INode) node;
+		
+		if (node instanceof INodeCreateLocalVariable || node instanceof INodeCreateObject) {
+			String name = AST.constantName(inode.children.get(0));
+			if (name != null)
+				declared.add(name);
+		} else if (node instanceof INodeIf || node instanceof INodeWhile || node instanceof INodeRepeat
+				|| node instanceof INodeListener || node instanceof INodeDefineCustomAction) {
+			return;
+		}
+		
+		for (AST child : inode.children) {
+			collectDeclarations(child, declared);
+		}
+	}
+	
+	/**
+	 * Binds a name to the slots of the enclosing blocks that declare it, or returns null if none does.
+	 */
+	private Binding bind(String name) {
+		ArrayList<Integer> hops = new ArrayList<Integer>();
+		ArrayList<Integer> slots = new ArrayList<Integer>();
+		ArrayList<ScopeLayout> layouts = new ArrayList<ScopeLayout>();
+		
+		for (int i = blocks.size() - 1; i >= 0; i--) {
+			ScopeLayout block = blocks.get(i);
+			int slot = block.getSlot(name);
+			
+			// Pronouns that are not declared in the block refer to the receiver of a custom action's scope
+			boolean isReceiver = slot < 0 && block.hasReceiver() && CustomActionDefinition.isPronoun(name);
+			if (slot >= 0 || isReceiver) {
+				hops.add(blocks.size() - 1 - i);
+				slots.add(isReceiver ? Binding.RECEIVER : slot);
+				layouts.add(block);
+			}
+		}
+		
+		if (slots.isEmpty())
+			return null;
+		
+		int[] hopsArray = new int[hops.size()];
+		int[] slotsArray = new int[slots.size()];
+		for (int i = 0; i < slotsArray.length; i++) {
+			hopsArray[i] = hops.get(i);
+			slotsArray[i] = slots.get(i);
+		}
+		return new Binding(hopsArray, layouts.toArray(new ScopeLayout[layouts.size()]), slotsArray);
+	}
+}
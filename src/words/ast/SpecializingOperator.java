@@ -0,0 +1,63 @@
+package words.ast;
+
+import words.environment.*;
+import words.exceptions.*;
+
+/**
+ * The compiled form of a binary operator that specializes itself to the types of the operands it sees.
+ * 
+ * The first execution records the operand types and picks a specialization for them, which skips the coercions and
+ * checks of the operator's generic path.  Each later execution checks that its operands still fit the specialization
+ * before using it.  If they do not, the operator deoptimizes: it falls back to the generic path for good, since operand
+ * types that have changed once are likely to change again.
+ */
+abstract class SpecializingOperator implements Executable {
+	protected static final int UNINITIALIZED = -1;
+	protected static final int GENERIC = 0;
+	
+	private final Executable lhs;
+	private final Executable rhs;
+	private int specialization;
+	
+	protected SpecializingOperator(Executable lhs, Executable rhs) {
+		this.lhs = lhs;
+		this.rhs = rhs;
+		this.specialization = UNINITIALIZED;
+	}
+	
+	@Override
+	public final ASTValue execute(Environment environment, Object inherited) throws WordsRuntimeException {
+		ASTValue lhsValue = lhs.execute(environment, null);
+		ASTValue rhsValue = rhs.execute(environment, null);
+		
+		int current = specialization;
+		if (current == UNINITIALIZED) {
+			current = specialization = specialize(lhsValue, rhsValue);
+		}
+		
+		if (current != GENERIC) {
+			ASTValue result = executeSpecialized(current, lhsValue, rhsValue);
+			if (result != null)
+				return result;
+			
+			specialization = GENERIC;
+		}
+		
+		return executeGeneric(lhsValue, rhsValue);
+	}
+	
+	/**
+	 * Returns the specialization to use for operands of the types first seen, or GENERIC if there is none.
+	 */
+	protected abstract int specialize(ASTValue lhs, ASTValue rhs);
+	
+	/**
+	 * Applies the operator using a specialization, or returns null without modifying the operands if they do not fit it.
+	 */
+	protected abstract ASTValue executeSpecialized(int specialization, ASTValue lhs, ASTValue rhs);
+	
+	/**
+	 * Applies the operator to operands of any type.
+	 */
+	protected abstract ASTValue executeGeneric(ASTValue lhs, ASTValue rhs) throws WordsRuntimeException;
+}
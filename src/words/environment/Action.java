@@ -8,13 +8,27 @@ import words.exceptions.*;
  */
 public abstract class Action {
 	protected Scope scope;		// Each action has an associated scope which was active at the time that action was enqueued
+	protected int repetitions;	// The number of frames an executable action stays at the front of the queue, executing once per frame
 	
 	public Action(Scope scope) {
 		this.scope = scope;
+		this.repetitions = 1;
 	}
 	
 	public abstract boolean isExecutable();
 	public final boolean isExpandable() { return !isExecutable(); }
+	
+	/**
+	 * Uses up one repetition of an executable action, returning whether it was the last one and the action should leave
+	 * the queue.  This lets a single action stand for a long run of identical one-frame actions.
+	 */
+	public final boolean finishRepetition() {
+		return --repetitions <= 0;
+	}
+	
+	public int getRepetitions() {
+		return repetitions;
+	}
 
 	/**
 	 * Execute the action in its associated scope if it is expandable.
@@ -28,6 +42,22 @@ public abstract class Action {
 		environment.popScope();
 	};
 
+	/**
+	 * Returns true if executing this action changes nothing but its own object and reads nothing else, not even its scope, so
+	 * that it may be executed with executeLocally() at the same time as the actions of other objects.
+	 */
+	public boolean isLocal() {
+		return false;
+	}
+	
+	/**
+	 * Execute a local action without setting up its scope or touching the environment.
+	 */
+	public final void executeLocally(WordsObject object) throws WordsProgramException {
+		assert isExecutable() && isLocal() : "Attempted to execute non-local action locally";
+		doExecute(object, null);
+	}
+
 	/**
 	 * Expand the action in its associated scope if it is expandable.
 	 */
@@ -0,0 +1,107 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.TreeSet;
+
+/**
+ * An index of the objects in an environment by the kind of the last action they performed and by class, so that the
+ * listeners for moves, waits and says only look at the objects that actually performed such an action.
+ * 
+ * As in the ObjectIndex, the entry for a class holds the objects of that class and of all its subclasses.  Objects are
+ * moved between entries only when the kind of their last action changes, so an object that keeps waiting or moving costs
+ * nothing to keep indexed.  Each entry is kept in creation order, which is the order listeners visit objects in.
+ */
+public class ActionIndex {
+	public enum Kind {
+		MOVE,
+		WAIT,
+		SAY
+	}
+	
+	private HashMap<WordsClass, ArrayList<TreeSet<WordsObject>>> objectsByClass;
+	private HashMap<WordsClass, ArrayList<List<WordsObject>>> snapshotsByClass;	// Null until requested and after each change
+	
+	public ActionIndex() {
+		objectsByClass = new HashMap<WordsClass, ArrayList<TreeSet<WordsObject>>>();
+		snapshotsByClass = new HashMap<WordsClass, ArrayList<List<WordsObject>>>();
+	}
+	
+	/**
+	 * Returns the kind of an action as far as the index is concerned, or null for an action that no listener looks for.
+	 */
+	public static Kind kindOf(Action action) {
+		if (action instanceof MoveAction)
+			return Kind.MOVE;
+		else if (action instanceof WaitAction)
+			return Kind.WAIT;
+		else if (action instanceof SayAction)
+			return Kind.SAY;
+		else
+			return null;
+	}
+	
+	/**
+	 * Registers a class with the index.  A class must be registered before any of its objects are added.
+	 */
+	public void addClass(WordsClass wordsClass) {
+		ArrayList<TreeSet<WordsObject>> entries = new ArrayList<TreeSet<WordsObject>>(Kind.values().length);
+		ArrayList<List<WordsObject>> snapshots = new ArrayList<List<WordsObject>>(Kind.values().length);
+		for (int i = 0; i < Kind.values().length; i++) {
+			entries.add(new TreeSet<WordsObject>(WordsObject.BY_CREATION_ORDER));
+			snapshots.add(null);
+		}
+		objectsByClass.put(wordsClass, entries);
+		snapshotsByClass.put(wordsClass, snapshots);
+	}
+	
+	/**
+	 * Moves an object from the entries for the kind of its previous last action to those for the kind of its new one, in
+	 * its class and all of that class's ancestors.  Either kind may be null.  The snapshots of the entries that changed are dropped.
+	 */
+	public void update(WordsObject object, Kind oldKind, Kind newKind) {
+		for (WordsClass wordsClass = object.getWordsClass(); wordsClass != null; wordsClass = wordsClass.getParent()) {
+			ArrayList<TreeSet<WordsObject>> entries = objectsByClass.get(wordsClass);
+			
+			// The class is gone if the environment was reset while the object was still acting
+			if (entries == null)
+				return;
+			
+			ArrayList<List<WordsObject>> snapshots = snapshotsByClass.get(wordsClass);
+			if (oldKind != null) {
+				entries.get(oldKind.ordinal()).remove(object);
+				snapshots.set(oldKind.ordinal(), null);
+			}
+			if (newKind != null) {
+				entries.get(newKind.ordinal()).add(object);
+				snapshots.set(newKind.ordinal(), null);
+			}
+		}
+	}
+	
+	/**
+	 * Returns a read-only copy, in creation order, of the objects of a class and its subclasses whose last action was of a given
+	 * kind.  The copy is shared by every caller until the entry changes, so that listeners with the same subject scan it only once
+	 * per frame.  Entries only change when objects act or are removed, neither of which happens while listeners run, so the
+	 * copy stays valid while iterating.
+	 */
+	public List<WordsObject> getObjectsSnapshot(WordsClass wordsClass, Kind kind) {
+		ArrayList<List<WordsObject>> snapshots = snapshotsByClass.get(wordsClass);
+		List<WordsObject> snapshot = snapshots.get(kind.ordinal());
+		if (snapshot == null) {
+			snapshot = Collections.unmodifiableList(new ArrayList<WordsObject>(objectsByClass.get(wordsClass).get(kind.ordinal())));
+			snapshots.set(kind.ordinal(), snapshot);
+		}
+		return snapshot;
+	}
+	
+	/**
+	 * Removes all classes and objects from the index.
+	 */
+	public void clear() {
+		objectsByClass.clear();
+		snapshotsByClass.clear();
+	}
+}
@@ -31,7 +31,7 @@ public class CustomAction extends Action {
 		Scope evaluatedArguments = new Scope(null);
 		if (arguments != null) {
 			try {
-				arguments.eval(environment, evaluatedArguments);
+				arguments.execute(environment, evaluatedArguments);
 			} catch (WordsRuntimeException e) {
 				throw new WordsProgramException(arguments, e);
 			}
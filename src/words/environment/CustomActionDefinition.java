@@ -1,17 +1,33 @@
 package words.environment;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
 
 import words.exceptions.*;
 import words.ast.*;
 
 public class CustomActionDefinition {
+	public static final String[] PRONOUNS = {"them", "it", "him", "her", "his", "its", "their", "Her", "His", "Its", "Their"};
+	private static final HashSet<String> pronouns = new HashSet<String>(Arrays.asList(PRONOUNS));
+	
 	private AST statementList;
-	private HashSet<String> parameters;
+	private ArrayList<String> parameters;
+	
+	// The slot of each parameter in the layout of the statement list, worked out on the first invocation with that layout
+	private ScopeLayout parameterLayout;
+	private int[] parameterSlots;
 	
 	public CustomActionDefinition(AST actions) {
 		this.statementList = actions;
-		this.parameters = new HashSet<String>();
+		this.parameters = new ArrayList<String>();
+	}
+	
+	/**
+	 * Returns whether a name is one of the pronouns that refer to the object a custom action was invoked on.
+	 */
+	public static boolean isPronoun(String name) {
+		return pronouns.contains(name);
 	}
 	
 	/**
@@ -19,7 +35,9 @@ public class CustomActionDefinition {
 	 * Registering the same name twice has no effect.
 	 */
 	public void addParameter(String paramName) {
-		parameters.add(paramName);
+		if (!parameters.contains(paramName)) {
+			parameters.add(paramName);
+		}
 	}
 	
 	/**
@@ -28,26 +46,54 @@ public class CustomActionDefinition {
 	 */
 	public void invoke(Environment environment, WordsObject object, Scope arguments) throws WordsProgramException {
 		// Custom action definitions can only appear in class definitions, which can only appear in the global scope
-		environment.pushNewScope(environment.getGlobalScope());
-		
-		// Install the pronouns to point to the given object
-		String[] pronouns = {"them", "it", "him", "her", "his", "its", "their", "Her", "His", "Its", "Their"};
-		for (String pronoun : pronouns) {
-			environment.addToCurrentScope(pronoun, new Variable(object));
+		ScopeLayout layout = statementList instanceof INodeStatementList ? ((INodeStatementList) statementList).getScopeLayout() : null;
+		if (layout != null) {
+			environment.pushNewScope(environment.getGlobalScope(), layout);
+		} else {
+			environment.pushNewScope(environment.getGlobalScope());
 		}
+		
+		// The pronouns all refer to the given object through the scope's receiver
+		Scope scope = environment.getCurrentScope();
+		scope.setReceiver(object);
 
 		try {
-			for (String argumentName : arguments.variables.keySet()) {
-				if (parameters.contains(argumentName)) {
-					environment.addToCurrentScope(argumentName, arguments.variables.get(argumentName));
-				}
+			if (arguments != null) {
+				bindParameters(scope, layout, arguments);
 			}
 			
-			statementList.eval(environment);
+			statementList.execute(environment);
 		} catch (WordsRuntimeException e) {
 			throw new WordsProgramException(statementList, e);
 		}
 		
 		environment.popScope();
 	}
-}
\ No newline at end of file
+	
+	/**
+	 * Binds the arguments given for each parameter, directly into the parameter's slot if the scope is laid out.
+	 */
+	private void bindParameters(Scope scope, ScopeLayout layout, Scope arguments) {
+		if (layout != null && layout != parameterLayout) {
+			int[] slots = new int[parameters.size()];
+			for (int i = 0; i < slots.length; i++) {
+				slots[i] = layout.getSlot(parameters.get(i));
+			}
+			parameterSlots = slots;
+			parameterLayout = layout;
+		}
+		
+		for (int i = 0; i < parameters.size(); i++) {
+			String parameter = parameters.get(i);
+			Variable argument = arguments.get(parameter);
+			if (argument == null)
+				continue;
+			
+			if (layout != null && parameterSlots[i] >= 0) {
+				scope.setSlot(parameterSlots[i], argument);
+			} else {
+				scope.put(parameter, argument);
+			}
+		}
+	}
+}
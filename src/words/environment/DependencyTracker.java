@@ -0,0 +1,192 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * Tracks which variables and object properties the conditions of event listeners read, so that a condition which reads nothing
+ * that has changed since it was last evaluated can reuse its previous value instead of polling again.
+ *
+ * While a condition is evaluated, every read of a variable or property is recorded against its node in the listener network.
+ * Every write marks the conditions that read the written state as stale.  Changes that are hard to attribute to a single variable
+ * or property, such as objects being removed or classes being created, mark every condition as stale at once.
+ *
+ * Conditions may also be evaluated on several threads at once, as long as nothing is written meanwhile.  Reads are buffered in
+ * each condition's node while it is evaluated and only entered into the shared maps by registerReads(), on a single thread.
+ */
+public class DependencyTracker {
+	private HashMap<String, HashSet<MatchNode>> variableReaders;
+	private HashMap<WordsObject, HashMap<Symbol, HashSet<MatchNode>>> propertyReaders;
+	private MatchNode recording;			// The condition being evaluated, if any
+	private boolean recordingInParallel;	// If so, each thread evaluates its own condition
+	private final ThreadLocal<MatchNode> parallelRecording = new ThreadLocal<MatchNode>();
+	private long epoch;						// Incremented whenever every condition is made stale
+
+	public DependencyTracker() {
+		variableReaders = new HashMap<String, HashSet<MatchNode>>();
+		propertyReaders = new HashMap<WordsObject, HashMap<Symbol, HashSet<MatchNode>>>();
+	}
+
+	/**
+	 * Returns true if nothing a condition read has changed since its value was last recorded.
+	 */
+	public boolean isUpToDate(MatchNode node) {
+		return node.upToDate && node.epoch == epoch;
+	}
+
+	/**
+	 * Starts recording the reads of a condition, forgetting what it read before.  When recording in parallel, the condition must
+	 * already have been forgotten.
+	 */
+	void startRecording(MatchNode node) {
+		if (recordingInParallel) {
+			parallelRecording.set(node);
+		} else {
+			forget(node);
+			recording = node;
+		}
+	}
+
+	/**
+	 * Stops recording.  A condition which failed stays stale, so that it is evaluated (and fails) again next time.
+	 */
+	void finishRecording(MatchNode node, boolean succeeded) {
+		node.upToDate = succeeded;
+		node.epoch = epoch;
+		if (recordingInParallel) {
+			parallelRecording.remove();
+		} else {
+			recording = null;
+			registerReads(node);
+		}
+	}
+
+	/**
+	 * Lets conditions be recorded on several threads at once until endParallelRecording() is called.
+	 */
+	void beginParallelRecording() {
+		recordingInParallel = true;
+	}
+
+	void endParallelRecording() {
+		recordingInParallel = false;
+	}
+
+	/**
+	 * Enters the reads buffered while a condition was evaluated into the maps of readers.
+	 */
+	void registerReads(MatchNode node) {
+		for (String name : node.variablesRead) {
+			HashSet<MatchNode> readers = variableReaders.get(name);
+			if (readers == null) {
+				readers = new HashSet<MatchNode>();
+				variableReaders.put(name, readers);
+			}
+			addReader(readers, node);
+		}
+
+		for (int i = 0; i < node.objectsRead.size(); i++) {
+			WordsObject object = node.objectsRead.get(i);
+			HashMap<Symbol, HashSet<MatchNode>> readersBySymbol = propertyReaders.get(object);
+			if (readersBySymbol == null) {
+				readersBySymbol = new HashMap<Symbol, HashSet<MatchNode>>();
+				propertyReaders.put(object, readersBySymbol);
+			}
+
+			Symbol symbol = node.symbolsRead.get(i);
+			HashSet<MatchNode> readers = readersBySymbol.get(symbol);
+			if (readers == null) {
+				readers = new HashSet<MatchNode>();
+				readersBySymbol.put(symbol, readers);
+			}
+			addReader(readers, node);
+		}
+
+		node.variablesRead.clear();
+		node.objectsRead.clear();
+		node.symbolsRead.clear();
+	}
+
+	/**
+	 * Forgets everything a condition has read, e.g., when it is removed from the network.
+	 */
+	void forget(MatchNode node) {
+		if (node.readerSets != null) {
+			for (HashSet<MatchNode> readers : node.readerSets) {
+				readers.remove(node);
+			}
+			node.readerSets.clear();
+		}
+		node.upToDate = false;
+	}
+
+	public void variableRead(String name) {
+		MatchNode node = recordingInParallel ? parallelRecording.get() : recording;
+		if (node != null)
+			node.variablesRead.add(name);
+	}
+
+	public void propertyRead(WordsObject object, Symbol symbol) {
+		MatchNode node = recordingInParallel ? parallelRecording.get() : recording;
+		if (node != null) {
+			node.objectsRead.add(object);
+			node.symbolsRead.add(symbol);
+		}
+	}
+
+	public void variableWritten(String name) {
+		HashSet<MatchNode> readers = variableReaders.get(name);
+		if (readers != null)
+			markStale(readers);
+	}
+
+	public void propertyWritten(WordsObject object, Symbol symbol) {
+		HashMap<Symbol, HashSet<MatchNode>> readersBySymbol = propertyReaders.get(object);
+		if (readersBySymbol == null)
+			return;
+
+		HashSet<MatchNode> readers = readersBySymbol.get(symbol);
+		if (readers != null)
+			markStale(readers);
+	}
+
+	/**
+	 * Marks every condition as stale and drops what was recorded about an object that is leaving the environment.
+	 */
+	public void objectRemoved(WordsObject object) {
+		propertyReaders.remove(object);
+		invalidateAll();
+	}
+
+	/**
+	 * Marks every condition as stale.
+	 */
+	public void invalidateAll() {
+		epoch++;
+	}
+
+	/**
+	 * Forgets all recorded reads.
+	 */
+	public void clear() {
+		variableReaders.clear();
+		propertyReaders.clear();
+		recording = null;
+		invalidateAll();
+	}
+
+	private static void addReader(HashSet<MatchNode> readers, MatchNode node) {
+		if (readers.add(node)) {
+			if (node.readerSets == null)
+				node.readerSets = new ArrayList<HashSet<MatchNode>>();
+			node.readerSets.add(readers);
+		}
+	}
+
+	private static void markStale(HashSet<MatchNode> readers) {
+		for (MatchNode node : readers) {
+			node.upToDate = false;
+		}
+	}
+}
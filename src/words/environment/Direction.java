@@ -1,6 +1,6 @@
 package words.environment;
 
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * An orthogonal direction.
@@ -15,12 +15,17 @@ public enum Direction {
 	public static Direction[] explicit = {DOWN, LEFT, RIGHT, UP};
 
 	/**
-	 * Returns a random explicit direction, i.e., not ANYWHERE.
+	 * Returns a random explicit direction, i.e., not ANYWHERE, drawn from a world's random number generator.
 	 */
-	public static Direction getRandom() {
-		Random randomGenerator = new Random();
-		int randomInt = randomGenerator.nextInt(explicit.length);
-		return Direction.explicit[randomInt];		
+	public static Direction getRandom(SplittableRandom random) {
+		return Direction.explicit[random.nextInt(explicit.length)];
+	}
+	
+	/**
+	 * Returns a direction, or a random explicit direction in its place if it is ANYWHERE.
+	 */
+	public static Direction resolve(Direction direction, SplittableRandom random) {
+		return direction == ANYWHERE ? getRandom(random) : direction;
 	}
 	
 	/**
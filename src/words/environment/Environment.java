@@ -2,10 +2,13 @@ package words.environment;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
 
+import words.Console;
+import words.Options;
 import words.exceptions.*;
 import words.ast.*;
 
@@ -13,14 +16,35 @@ public class Environment {
 	private HashMap<String, WordsClass> classes;
 	private Scope globalScope;
 	private LinkedList<Scope> stack;		// Stack of scopes (essentially, the control link)
-	private HashMap<WordsClass, HashSet<WordsObject>> objectsByClass;
+	private ObjectIndex objectIndex;		// Objects of each class and its subclasses
+	private SpatialIndex spatialIndex;		// Objects by the cell they occupy
+	private ActionIndex actionIndex;		// Objects by class and the kind of their last action
+	private DependencyTracker dependencyTracker;	// What the predicates of listeners read
+	private ListenerNetwork listenerNetwork;		// The predicates of listeners, sharing common subexpressions
+	private long nextCreationOrder;
 	private ArrayList<WordsEventListener> eventListeners;
+	private Options options;
+	private Console console;				// Where the output and errors of this world go
+	private SplittableRandom random;		// Used only on the thread running the world, so that a seeded run can be replayed exactly
 	private static final String BASE_SUPERCLASS = "thing";
 	
+	/**
+	 * Creates an environment with the default options, writing to the standard streams.
+	 */
 	public Environment() {
+		this(new Options());
+	}
+	
+	public Environment(Options options) {
+		this.options = options;
+		this.console = new Console(options);
+		random = options.seed != null ? new SplittableRandom(options.seed) : new SplittableRandom();
 		classes = new HashMap<String, WordsClass>();
 		eventListeners = new ArrayList<WordsEventListener>();
-		objectsByClass = new HashMap<WordsClass, HashSet<WordsObject>>();
+		objectIndex = new ObjectIndex();
+		actionIndex = new ActionIndex();
+		dependencyTracker = new DependencyTracker();
+		listenerNetwork = new ListenerNetwork(dependencyTracker);
 		setupEnvironment();
 	}
 	
@@ -30,7 +54,9 @@ public class Environment {
 	private void setupEnvironment() {
 		WordsClass thing = new WordsClass(BASE_SUPERCLASS, null);
 		classes.put(BASE_SUPERCLASS, thing);
-		objectsByClass.put(thing, new HashSet<WordsObject>());
+		objectIndex.addClass(thing);
+		actionIndex.addClass(thing);
+		spatialIndex = new SpatialIndex();
 		stack = new LinkedList<Scope>();
 		globalScope = new Scope(null);
 		stack.push(globalScope);
@@ -41,7 +67,10 @@ public class Environment {
 	 */
 	public void resetEnvironment() {
 		classes.clear();
-		objectsByClass.clear();
+		objectIndex.clear();
+		actionIndex.clear();
+		dependencyTracker.clear();
+		listenerNetwork.clear();
 		eventListeners.clear();
 		setupEnvironment();
 	}
@@ -58,7 +87,9 @@ public class Environment {
 			WordsClass parentClass = getClass(parent);
 			WordsClass wordsClass = new WordsClass(className, parentClass);
 			classes.put(className, wordsClass);
-			objectsByClass.put(wordsClass, new HashSet<WordsObject>());
+			objectIndex.addClass(wordsClass);
+			actionIndex.addClass(wordsClass);
+			dependencyTracker.invalidateAll();
 			
 			return wordsClass;
 		}
@@ -99,6 +130,13 @@ public class Environment {
 		stack.push(new Scope(parent));
 	}
 	
+	/**
+	 * Creates and enters a new local scope with the given layout using the given scope as the parent.
+	 */
+	public void pushNewScope(Scope parent, ScopeLayout layout) {
+		stack.push(new Scope(parent, layout));
+	}
+	
 	/**
 	 * Enters an existing local scope.
 	 */
@@ -147,26 +185,33 @@ public class Environment {
 		} else if (existingVariable.type != Variable.VariableType.NOTHING) {
 			existingVariable.copyOtherVariable(value);
 		} else {
-			getCurrentScope().variables.put(varName, value);
+			getCurrentScope().put(varName, value);
 		}
+		dependencyTracker.variableWritten(varName);
 		
-		// If this variable is an object, also add it to objects by class
+		// If this variable is an object, also add it to the object index
 		if (value.type == Variable.VariableType.OBJECT) {
-			objectsByClass.get(value.objProperty.getWordsClass()).add(value.objProperty);
+			WordsObject object = value.objProperty;
+			object.setCreationOrder(nextCreationOrder++);
+			objectIndex.add(object);
+			spatialIndex.add(object);
+			object.setSpatialIndex(spatialIndex);
+			object.setActionIndex(actionIndex);
+			object.setDependencyTracker(dependencyTracker);
 		}
 	}
 	
 	public void removeObject(WordsObject object) {
 		object.clearReferers();
-		objectsByClass.get(object.getWordsClass()).remove(object);
+		objectIndex.remove(object);
+		spatialIndex.remove(object);
+		object.setSpatialIndex(null);
+		object.setActionIndex(null);
+		object.setDependencyTracker(null);
+		dependencyTracker.objectRemoved(object);
 		
 		for (Scope scope : stack) {
-			for (Iterator<Variable> iterator = scope.variables.values().iterator(); iterator.hasNext();) {
-				Variable property = iterator.next();
-				if (property.type == Variable.VariableType.OBJECT && property.objProperty == object) {
-					iterator.remove();
-				}
-			}
+			scope.removeObject(object);
 		}
 	}
 	
@@ -174,11 +219,18 @@ public class Environment {
 	 * Removes objects that have been flagged for removal.
 	 */
 	public void cleanup() {
-		for (Iterator<WordsObject> iterator = getObjects().iterator(); iterator.hasNext();) {
-			WordsObject obj = iterator.next();
-			
+		// Collect first, since removing an object modifies the index being iterated
+		ArrayList<WordsObject> objectsToRemove = null;
+		for (WordsObject obj : getObjects()) {
 			if (obj.shouldRemove()) {
-				iterator.remove();
+				if (objectsToRemove == null)
+					objectsToRemove = new ArrayList<WordsObject>();
+				objectsToRemove.add(obj);
+			}
+		}
+		
+		if (objectsToRemove != null) {
+			for (WordsObject obj : objectsToRemove) {
 				removeObject(obj);
 			}
 		}
@@ -188,7 +240,8 @@ public class Environment {
 	 * Adds a variable to the current scope.
 	 */
 	public void addToCurrentScope(String variableName, Variable variable) {
-		getCurrentScope().variables.put(variableName, variable);
+		getCurrentScope().put(variableName, variable);
+		dependencyTracker.variableWritten(variableName);
 	}
 	
 	/**
@@ -196,11 +249,13 @@ public class Environment {
 	 * Does not iterate through the stack but uses the scope's parents as an access link.
 	 */
 	public Variable getVariable(String variableName) {
+		dependencyTracker.variableRead(variableName);
+		
 		Variable prop = null;
 		Scope scope = getCurrentScope();
 		
 		while (scope != null) {
-			prop = scope.variables.get(variableName);
+			prop = scope.get(variableName);
 			if (prop != null)
 				break;
 			scope = scope.parent;
@@ -214,38 +269,107 @@ public class Environment {
 	}
 	
 	/**
-	 * Returns a collection of all objects.
+	 * Returns a read-only, live view of all objects.  Must not be iterated while objects may be created or removed;
+	 * use getObjectsSnapshot() in that case.
 	 */
 	public Collection<WordsObject> getObjects() {
-		try {
-			return getObjectsByClass(BASE_SUPERCLASS);
-		} catch (WordsClassNotFoundException e) {
-			System.exit(1);
-		}
-		return null;
+		return objectIndex.getObjects(classes.get(BASE_SUPERCLASS));
 	}
 	
 	/**
-	 * Return a collection of all objects of a given class, as well as all the objects
+	 * Returns a copy of all objects which is safe to iterate while objects are created or removed.
+	 */
+	public ArrayList<WordsObject> getObjectsSnapshot() {
+		return objectIndex.getObjectsSnapshot(classes.get(BASE_SUPERCLASS));
+	}
+	
+	/**
+	 * Return a read-only, live view of all objects of a given class, as well as all the objects
 	 * that exist in subclasses of the given class.
 	 * Returns an empty collection if there are no objects of that class in the environment
 	 * @throws WordsClassNotFoundException
 	 */
-	@SuppressWarnings("unchecked")
-	public HashSet<WordsObject> getObjectsByClass(String className) throws WordsClassNotFoundException {
-		WordsClass wc = getClass(className);
-		HashSet<WordsObject> objectsToReturn = (HashSet<WordsObject>) objectsByClass.get(wc).clone();
-		for (WordsClass childClass : wc.getChildren()) {
-			objectsToReturn.addAll(getObjectsByClass(childClass.getClassName()));
-		}
-		return objectsToReturn;
+	public Set<WordsObject> getObjectsByClass(String className) throws WordsClassNotFoundException {
+		return objectIndex.getObjects(getClass(className));
+	}
+	
+	/**
+	 * Return a copy of all objects of a given class and its subclasses which is safe to iterate while objects are created or removed.
+	 * @throws WordsClassNotFoundException
+	 */
+	public ArrayList<WordsObject> getObjectsSnapshotByClass(String className) throws WordsClassNotFoundException {
+		return objectIndex.getObjectsSnapshot(getClass(className));
+	}
+	
+	/**
+	 * Return a read-only copy, in creation order, of the objects of a given class and its subclasses whose last action was of a
+	 * given kind.  The copy is shared by all callers until an object of the class acts differently or is removed.
+	 * @throws WordsClassNotFoundException
+	 */
+	public List<WordsObject> getObjectsSnapshotByClass(String className, ActionIndex.Kind kind) throws WordsClassNotFoundException {
+		return actionIndex.getObjectsSnapshot(getClass(className), kind);
+	}
+	
+	/**
+	 * Returns the index of objects by the cell they occupy.
+	 */
+	public SpatialIndex getSpatialIndex() {
+		return spatialIndex;
+	}
+	
+	/**
+	 * Returns the tracker of what the predicates of event listeners read.
+	 */
+	public DependencyTracker getDependencyTracker() {
+		return dependencyTracker;
+	}
+	
+	/**
+	 * Returns the network that evaluates the predicates of event listeners.
+	 */
+	public ListenerNetwork getListenerNetwork() {
+		return listenerNetwork;
+	}
+	
+	/**
+	 * Returns the options this world runs with.
+	 */
+	public Options getOptions() {
+		return options;
+	}
+	
+	/**
+	 * Returns the console this world writes its output and errors to.
+	 */
+	public Console getConsole() {
+		return console;
+	}
+	
+	public void setConsole(Console console) {
+		this.console = console;
+	}
+	
+	/**
+	 * Returns the random number generator of this world, seeded from its options if they give a seed.
+	 */
+	public SplittableRandom getRandom() {
+		return random;
+	}
+	
+	/**
+	 * Returns the creation order that the next object added to the environment will receive.  Objects with a lower
+	 * creation order already existed when this was called.
+	 */
+	public long getNextCreationOrder() {
+		return nextCreationOrder;
 	}
 	
 	/**
 	 * Create a new event listener.
 	 */
 	public void createListener(AST predicate, AST statementList, boolean temporary) {
-		eventListeners.add(new WordsEventListener(predicate, statementList, temporary));
+		MatchNode condition = predicate instanceof INodeBasicActionPredicate ? null : listenerNetwork.acquire(predicate);
+		eventListeners.add(new WordsEventListener(predicate, condition, statementList, temporary));
 	}
 
 	/**
@@ -0,0 +1,137 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+import words.ast.*;
+
+/**
+ * A matching network for the predicates of event listeners.  Each listener's predicate is broken down at its conjunctions,
+ * disjunctions and negations into match nodes, and a node is shared by every listener whose predicate contains an identical
+ * subexpression.  With dependency tracking, a condition that many listeners share is evaluated once and its value kept
+ * between frames until something it read changes.
+ *
+ * The network only changes how predicates are evaluated; listeners are still run one after another in the order they were
+ * created, and each sees the effects of the statements run by the listeners before it.  Before they run, the stale conditions may
+ * be evaluated in parallel against the state at the start of the listener phase.  A listener whose statements change what a later
+ * condition read makes that condition stale again, so it is evaluated once more in order, exactly as if nothing had been done
+ * in advance.
+ */
+public class ListenerNetwork {
+	private HashMap<String, MatchNode> nodes;
+	private DependencyTracker dependencyTracker;
+
+	public ListenerNetwork(DependencyTracker dependencyTracker) {
+		this.nodes = new HashMap<String, MatchNode>();
+		this.dependencyTracker = dependencyTracker;
+	}
+
+	/**
+	 * Returns the node for a predicate, building it and any missing nodes below it.  Each call must be matched by a call to
+	 * release() once the listener is removed.
+	 */
+	public MatchNode acquire(AST predicate) {
+		String structure = predicate.structure();
+		MatchNode node = nodes.get(structure);
+
+		if (node == null) {
+			if (predicate instanceof INodeAnd) {
+				node = new MatchNode(MatchNode.Kind.AND, structure, acquire(child(predicate, 0)), acquire(child(predicate, 1)));
+			} else if (predicate instanceof INodeOr) {
+				node = new MatchNode(MatchNode.Kind.OR, structure, acquire(child(predicate, 0)), acquire(child(predicate, 1)));
+			} else if (predicate instanceof INodeNot) {
+				node = new MatchNode(MatchNode.Kind.NOT, structure, acquire(child(predicate, 0)), null);
+			} else {
+				node = new MatchNode(structure, predicate, isTrackable(predicate));
+			}
+			nodes.put(structure, node);
+		}
+
+		node.references++;
+		return node;
+	}
+
+	/**
+	 * Releases a node acquired for a listener, removing it and the nodes below it once nothing shares them any more.
+	 */
+	public void release(MatchNode node) {
+		if (--node.references > 0)
+			return;
+
+		nodes.remove(node.getStructure());
+		dependencyTracker.forget(node);
+		for (MatchNode input : node.getInputs()) {
+			release(input);
+		}
+	}
+
+	/**
+	 * Evaluates the stale tracked conditions on the fork-join pool, if there are at least a given number of them.  Must not be
+	 * called while anything else reads or changes the environment.
+	 */
+	public void evaluateStaleConditions(Environment environment, int minimum) {
+		ArrayList<MatchNode> stale = new ArrayList<MatchNode>();
+		for (MatchNode node : nodes.values()) {
+			if (node.isTrackedCondition() && !dependencyTracker.isUpToDate(node))
+				stale.add(node);
+		}
+
+		if (stale.size() < minimum)
+			return;
+
+		for (MatchNode node : stale) {
+			dependencyTracker.forget(node);
+			node.prepare(environment);
+		}
+
+		dependencyTracker.beginParallelRecording();
+		try {
+			stale.parallelStream().forEach(node -> node.evaluateInParallel(environment));
+		} finally {
+			dependencyTracker.endParallelRecording();
+		}
+
+		for (MatchNode node : stale) {
+			dependencyTracker.registerReads(node);
+		}
+	}
+
+	/**
+	 * Returns the number of distinct nodes in the network.
+	 */
+	public int size() {
+		return nodes.size();
+	}
+
+	/**
+	 * Removes all nodes from the network.
+	 */
+	public void clear() {
+		nodes.clear();
+	}
+
+	/**
+	 * Returns true if an expression only reads variables and object properties and has no side effects, so that its value can only
+	 * change when one of the things it read is written.  Predicates that scan objects, such as adjacency tests, are always polled.
+	 */
+	static boolean isTrackable(AST node) {
+		if (node == null || node instanceof LNode)
+			return true;
+
+		if (!(node instanceof INodeAnd || node instanceof INodeOr || node instanceof INodeNot || node instanceof INodeRelOp
+				|| node instanceof INodeEquals || node instanceof INodeAdd || node instanceof INodeSubtract
+				|| node instanceof INodeMultiply || node instanceof INodeDivide || node instanceof INodeExponentiate
+				|| node instanceof INodeNegate || node instanceof INodeRetrieveProperty || node instanceof INodeReferenceList))
+			return false;
+
+		for (AST child : ((INode) node).children) {
+			if (!isTrackable(child))
+				return false;
+		}
+		return true;
+	}
+
+	private static AST child(AST node, int index) {
+		return ((INode) node).children.get(index);
+	}
+}
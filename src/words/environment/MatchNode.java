@@ -0,0 +1,152 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+
+import words.ast.*;
+import words.exceptions.*;
+
+/**
+ * A node of the listener network.  A condition node evaluates a predicate that is not itself a conjunction, disjunction or
+ * negation, such as a comparison; the other nodes combine the values of the nodes below them.  Nodes are shared by every listener
+ * whose predicate contains the same subexpression.
+ *
+ * A tracked condition keeps its last value until the dependency tracker reports that something it read has changed, so a
+ * condition shared by many listeners is evaluated at most once between changes.  Combining nodes are cheap and are evaluated every
+ * time, which keeps short-circuiting, and therefore which conditions are evaluated at all, exactly as in the predicate.
+ */
+public class MatchNode {
+	enum Kind {
+		CONDITION,
+		AND,
+		OR,
+		NOT
+	}
+
+	private final Kind kind;
+	private final String structure;		// The key of this node in the network
+	private final AST condition;		// For condition nodes only
+	private final MatchNode left;		// For combining nodes only; a negation has no right node
+	private final MatchNode right;
+	private final boolean tracked;
+	private boolean value;				// The value of a tracked condition when it was last evaluated
+	int references;						// The number of listeners and nodes sharing this node
+
+	// Maintained by the dependency tracker
+	boolean upToDate;
+	long epoch;
+	ArrayList<HashSet<MatchNode>> readerSets;
+	final ArrayList<String> variablesRead = new ArrayList<String>();		// Reads not yet registered with the tracker
+	final ArrayList<WordsObject> objectsRead = new ArrayList<WordsObject>();
+	final ArrayList<Symbol> symbolsRead = new ArrayList<Symbol>();
+
+	MatchNode(String structure, AST condition, boolean tracked) {
+		this.kind = Kind.CONDITION;
+		this.structure = structure;
+		this.condition = condition;
+		this.left = null;
+		this.right = null;
+		this.tracked = tracked;
+	}
+
+	MatchNode(Kind kind, String structure, MatchNode left, MatchNode right) {
+		this.kind = kind;
+		this.structure = structure;
+		this.condition = null;
+		this.left = left;
+		this.right = right;
+		this.tracked = left.tracked && (right == null || right.tracked);
+	}
+
+	/**
+	 * Returns the value of the predicate this node stands for.
+	 * @throws WordsRuntimeException
+	 */
+	public boolean evaluate(Environment environment) throws WordsRuntimeException {
+		switch (kind) {
+		case AND:
+			return left.evaluate(environment) && right.evaluate(environment);
+		case OR:
+			return left.evaluate(environment) || right.evaluate(environment);
+		case NOT:
+			return !left.evaluate(environment);
+		default:
+			return evaluateCondition(environment);
+		}
+	}
+
+	private boolean evaluateCondition(Environment environment) throws WordsRuntimeException {
+		if (!tracked)
+			return condition.executeBoolean(environment);
+
+		DependencyTracker tracker = environment.getDependencyTracker();
+		if (tracker.isUpToDate(this))
+			return value;
+
+		boolean succeeded = false;
+		tracker.startRecording(this);
+		try {
+			value = condition.executeBoolean(environment);
+			succeeded = true;
+		} finally {
+			tracker.finishRecording(this, succeeded);
+		}
+		return value;
+	}
+
+	/**
+	 * Evaluates a tracked condition while other threads evaluate other conditions.  A condition that fails is left stale, to be
+	 * evaluated again in listener order, which is where its error is reported.
+	 */
+	void evaluateInParallel(Environment environment) {
+		DependencyTracker tracker = environment.getDependencyTracker();
+		boolean succeeded = false;
+		tracker.startRecording(this);
+		try {
+			value = condition.executeBoolean(environment);
+			succeeded = true;
+		} catch (WordsRuntimeException e) {
+			// Reported when the listener is executed
+		} finally {
+			tracker.finishRecording(this, succeeded);
+		}
+	}
+
+	/**
+	 * Returns true if this node evaluates a condition that is re-evaluated only when something it read has changed.
+	 */
+	boolean isTrackedCondition() {
+		return kind == Kind.CONDITION && tracked;
+	}
+
+	/**
+	 * Compiles the condition, so that compiling does not happen on several threads at once.
+	 */
+	void prepare(Environment environment) {
+		if (environment.getOptions().compile)
+			condition.getBooleanExecutable();
+	}
+
+	/**
+	 * Returns true if every condition below this node is re-evaluated only when something it read has changed.
+	 */
+	public boolean isTracked() {
+		return tracked;
+	}
+
+	/**
+	 * Returns the nodes this node combines, which are empty for a condition.
+	 */
+	public ArrayList<MatchNode> getInputs() {
+		ArrayList<MatchNode> inputs = new ArrayList<MatchNode>(2);
+		if (left != null)
+			inputs.add(left);
+		if (right != null)
+			inputs.add(right);
+		return inputs;
+	}
+
+	String getStructure() {
+		return structure;
+	}
+}
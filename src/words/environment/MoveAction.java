@@ -16,15 +16,14 @@ public class MoveAction extends Action {
 	 * else an exception will be thrown to the user when the action is executed.
 	 * 
 	 * distanceExpression may be null, in which case the WordsMove will be treated as a 1-unit move.
+	 * 
+	 * direction must be explicit; ANYWHERE is replaced beforehand with Direction.resolve(), using the world's random number generator.
 	 */
 	public MoveAction(Scope scope, Direction direction, AST distanceExpression) {
 		super(scope);
 		
-		if (direction == Direction.ANYWHERE) {
-			this.direction = Direction.getRandom();
-		} else {
-			this.direction = direction;
-		}
+		assert direction != Direction.ANYWHERE : "Direction must be resolved";
+		this.direction = direction;
 		this.distanceExpression = distanceExpression;
 	}
 	
@@ -33,12 +32,13 @@ public class MoveAction extends Action {
 	}
 
 	/**
-	 * Private constructor used to create a 1-unit move action.
+	 * Private constructor used to create an executable move action that moves 1 unit in each of distance frames.
 	 */
-	private MoveAction(Scope scope, Direction direction) {
+	private MoveAction(Scope scope, Direction direction, int distance) {
 		super(scope);
 		this.direction = direction;
 		this.distanceExpression = null;
+		this.repetitions = distance;
 	}
 
 	@Override
@@ -48,6 +48,11 @@ public class MoveAction extends Action {
 
 		return true;
 	}
+	
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 	@Override
 	public void doExecute(WordsObject object, Environment environment) throws WordsProgramException {
@@ -75,7 +80,7 @@ public class MoveAction extends Action {
 	public LinkedList<Action> doExpand(WordsObject object, Environment environment) throws WordsProgramException {
 		ASTValue value;
 		try {
-			value = distanceExpression.eval(environment).tryCoerceTo(ASTValue.Type.NUM);
+			value = distanceExpression.execute(environment).tryCoerceTo(ASTValue.Type.NUM);
 		} catch (WordsRuntimeException e) {
 			throw new WordsProgramException(distanceExpression, e);
 		}
@@ -93,14 +98,11 @@ public class MoveAction extends Action {
 
 		LinkedList<Action> list = new LinkedList<Action>();
 
-		// Decompose into executable 1-unit moves, or a wait action if distanceValue is zero
+		// Decompose into a run of executable 1-unit moves, or a wait action if distanceValue is zero
 		if (distanceValue > 0) {
-			for (int i = 0; i < distanceValue; i++) {
-				// Use the private constructor to create the 1-unit move
-				list.add(new MoveAction(scope, direction));
-			}
+			list.add(new MoveAction(scope, direction, distanceValue));
 		} else {
-			list.add(new WaitAction(scope, new LNodeNum(1)));
+			list.add(new WaitAction(scope));
 		}
 
 		return list;
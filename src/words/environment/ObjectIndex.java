@@ -0,0 +1,73 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * An index of the objects in an environment by class.  The entry for a class holds the objects of that class and of all its
+ * subclasses, so that a whole subtree of the class hierarchy can be retrieved without copying or merging sets.
+ *
+ * The index is kept up to date incrementally as objects are created and removed.  The views it hands out are live, so a caller
+ * that may create or remove objects while iterating (e.g., by evaluating statements) must iterate over a snapshot instead.
+ */
+public class ObjectIndex {
+	private HashMap<WordsClass, LinkedHashSet<WordsObject>> objectsByClass;
+	private HashMap<WordsClass, Set<WordsObject>> viewsByClass;
+
+	public ObjectIndex() {
+		objectsByClass = new HashMap<WordsClass, LinkedHashSet<WordsObject>>();
+		viewsByClass = new HashMap<WordsClass, Set<WordsObject>>();
+	}
+
+	/**
+	 * Registers a class with the index.  A class must be registered before any of its objects are added.
+	 */
+	public void addClass(WordsClass wordsClass) {
+		LinkedHashSet<WordsObject> objects = new LinkedHashSet<WordsObject>();
+		objectsByClass.put(wordsClass, objects);
+		viewsByClass.put(wordsClass, Collections.unmodifiableSet(objects));
+	}
+
+	/**
+	 * Adds an object to the entries of its class and all of that class's ancestors.
+	 */
+	public void add(WordsObject object) {
+		for (WordsClass wordsClass = object.getWordsClass(); wordsClass != null; wordsClass = wordsClass.getParent()) {
+			objectsByClass.get(wordsClass).add(object);
+		}
+	}
+
+	/**
+	 * Removes an object from the entries of its class and all of that class's ancestors.
+	 */
+	public void remove(WordsObject object) {
+		for (WordsClass wordsClass = object.getWordsClass(); wordsClass != null; wordsClass = wordsClass.getParent()) {
+			objectsByClass.get(wordsClass).remove(object);
+		}
+	}
+
+	/**
+	 * Returns a read-only, live view of the objects of a class and its subclasses, in the order they were created.
+	 */
+	public Set<WordsObject> getObjects(WordsClass wordsClass) {
+		return viewsByClass.get(wordsClass);
+	}
+
+	/**
+	 * Returns a copy of the objects of a class and its subclasses that is safe to iterate while objects are created or removed.
+	 */
+	public ArrayList<WordsObject> getObjectsSnapshot(WordsClass wordsClass) {
+		return new ArrayList<WordsObject>(objectsByClass.get(wordsClass));
+	}
+
+	/**
+	 * Removes all classes and objects from the index.
+	 */
+	public void clear() {
+		objectsByClass.clear();
+		viewsByClass.clear();
+	}
+}
@@ -23,7 +23,7 @@ public class PropertyAssignAction extends Action {
 	@Override
 	protected void doExecute(WordsObject object, Environment environment) throws WordsProgramException {
 		try {
-			propertyAssignmentList.eval(environment, object);
+			propertyAssignmentList.execute(environment, object);
 		} catch (WordsRuntimeException e) {
 			throw new WordsProgramException(propertyAssignmentList, e);
 		}
@@ -0,0 +1,42 @@
+package words.environment;
+
+/**
+ * An inline cache for one property access in the program.  It holds the property's symbol, resolved once, together
+ * with the last shape the property was looked up in and the slot it was found in, so that accessing the property on
+ * an object of the same shape again does not need a lookup.
+ */
+public class PropertyCache {
+	private final Symbol symbol;
+	private volatile Entry entry;		// Replaced as a whole so that the shape and slot are always read consistently
+	
+	private static final class Entry {
+		final Shape shape;
+		final int slot;
+		
+		Entry(Shape shape, int slot) {
+			this.shape = shape;
+			this.slot = slot;
+		}
+	}
+	
+	public PropertyCache(String propertyName) {
+		this.symbol = Symbol.intern(propertyName);
+	}
+	
+	public Symbol getSymbol() {
+		return symbol;
+	}
+	
+	/**
+	 * Returns the slot of the property in a shape, or -1 if the shape does not have the property.
+	 */
+	int getSlot(Shape shape) {
+		Entry e = entry;
+		if (e != null && e.shape == shape)
+			return e.slot;
+		
+		int slot = shape.getSlot(symbol);
+		entry = new Entry(shape, slot);
+		return slot;
+	}
+}
@@ -26,7 +26,7 @@ public class SayAction extends Action {
 
 		ASTValue value;
 		try {
-			value = message.eval(environment).tryCoerceTo(ASTValue.Type.STRING);
+			value = message.execute(environment).tryCoerceTo(ASTValue.Type.STRING);
 		} catch (WordsRuntimeException e) {
 			throw new WordsProgramException(message, e);
 		}
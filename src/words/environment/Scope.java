@@ -1,23 +1,134 @@
 package words.environment;
 
 import java.util.HashMap;
+import java.util.Iterator;
 
 /**
  * A scope is a collection of variables whose value can be accessed by name. 
+ * 
+ * A scope may have a layout, in which case the variables named in the layout are kept in an array of slots rather than
+ * in the map, and the map is only created if a variable outside the layout is added.
+ * 
+ * The scope of a custom action invocation also has a receiver: the object the action was invoked on.  All of the
+ * pronouns refer to the receiver, so they share a single variable rather than each having one of their own.
  */
 public class Scope {
 	public Scope parent;		// The access link to enclosing scope
 	public HashMap<String, Variable> variables;
+	private ScopeLayout layout;
+	private Variable[] slots;
+	private Variable receiver;
 	
 	public Scope(Scope parent) {
 		this.parent = parent;
 		variables = new HashMap<String, Variable>(); 
 	}
 	
+	public Scope(Scope parent, ScopeLayout layout) {
+		this.parent = parent;
+		this.layout = layout;
+		this.slots = new Variable[layout.size()];
+	}
+	
 	public int getDepth() {
 		if (parent == null)
 			return 1;
 		else
 			return 1 + parent.getDepth();
 	}
+	
+	/**
+	 * Returns the layout of this scope, or null if it has none.
+	 */
+	public ScopeLayout getLayout() {
+		return layout;
+	}
+	
+	/**
+	 * Returns the variable in a slot of this scope's layout, or null if it has not been declared yet.
+	 */
+	public Variable getSlot(int slot) {
+		return slots[slot];
+	}
+	
+	/**
+	 * Sets the object that the pronouns refer to in this scope.
+	 */
+	public void setReceiver(WordsObject object) {
+		receiver = new Variable(object);
+	}
+	
+	/**
+	 * Returns the variable holding the object that the pronouns refer to, or null if this scope has no receiver.
+	 */
+	public Variable getReceiver() {
+		return receiver;
+	}
+	
+	/**
+	 * Puts a variable in a slot of this scope's layout.
+	 */
+	public void setSlot(int slot, Variable variable) {
+		slots[slot] = variable;
+	}
+	
+	/**
+	 * Returns the variable of a given name in this scope only, or null if there is none.
+	 */
+	public Variable get(String name) {
+		if (layout != null) {
+			int slot = layout.getSlot(name);
+			if (slot >= 0)
+				return slots[slot];
+		}
+		
+		Variable variable = variables == null ? null : variables.get(name);
+		if (variable == null && receiver != null && CustomActionDefinition.isPronoun(name))
+			return receiver;
+		
+		return variable;
+	}
+	
+	/**
+	 * Adds or replaces a variable in this scope.
+	 */
+	public void put(String name, Variable variable) {
+		if (layout != null) {
+			int slot = layout.getSlot(name);
+			if (slot >= 0) {
+				slots[slot] = variable;
+				return;
+			}
+		}
+		
+		if (variables == null)
+			variables = new HashMap<String, Variable>();
+		variables.put(name, variable);
+	}
+	
+	/**
+	 * Removes all variables in this scope that refer to a given object.
+	 */
+	public void removeObject(WordsObject object) {
+		if (receiver != null && receiver.type == Variable.VariableType.OBJECT && receiver.objProperty == object) {
+			receiver = null;
+		}
+		
+		if (slots != null) {
+			for (int i = 0; i < slots.length; i++) {
+				if (slots[i] != null && slots[i].type == Variable.VariableType.OBJECT && slots[i].objProperty == object) {
+					slots[i] = null;
+				}
+			}
+		}
+		
+		if (variables != null) {
+			for (Iterator<Variable> iterator = variables.values().iterator(); iterator.hasNext();) {
+				Variable property = iterator.next();
+				if (property.type == Variable.VariableType.OBJECT && property.objProperty == object) {
+					iterator.remove();
+				}
+			}
+		}
+	}
 }
@@ -0,0 +1,62 @@
+package words.environment;
+
+import java.util.Collection;
+import java.util.HashMap;
+
+/**
+ * The layout of a local scope as determined before the scope is run: the names of the variables that may be declared in it,
+ * each assigned a slot.  A layout is shared by every scope created for the same block, so entering the block again only
+ * allocates an array of slots.
+ */
+public class ScopeLayout {
+	private String[] names;
+	private HashMap<String, Integer> slots;
+	private boolean hasReceiver;		// Whether scopes of this layout hold the object that the pronouns refer to
+	
+	public ScopeLayout(Collection<String> names) {
+		this(names, false);
+	}
+	
+	public ScopeLayout(Collection<String> names, boolean hasReceiver) {
+		this.hasReceiver = hasReceiver;
+		this.names = names.toArray(new String[names.size()]);
+		this.slots = new HashMap<String, Integer>();
+		
+		for (int i = 0; i < this.names.length; i++) {
+			slots.put(this.names[i], i);
+		}
+	}
+	
+	/**
+	 * Returns the slot of a name, or -1 if the name is not laid out.
+	 */
+	public int getSlot(String name) {
+		Integer slot = slots.get(name);
+		return slot == null ? -1 : slot;
+	}
+	
+	public String getName(int slot) {
+		return names[slot];
+	}
+	
+	/**
+	 * Returns the number of slots.
+	 */
+	public int size() {
+		return names.length;
+	}
+	
+	/**
+	 * Returns whether scopes of this layout have a receiver, as the scope of a custom action invocation does.
+	 */
+	public boolean hasReceiver() {
+		return hasReceiver;
+	}
+	
+	/**
+	 * Returns whether scopes of this layout would hold nothing at all, so that no scope needs to be created.
+	 */
+	public boolean isEmpty() {
+		return names.length == 0 && !hasReceiver;
+	}
+}
@@ -0,0 +1,80 @@
+package words.environment;
+
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The layout of an object's own properties: which property symbols it has and the slot each one's value is kept in.
+ * 
+ * Shapes are immutable and shared.  Objects that are given the same properties in the same order end up with the same
+ * shape, since adding a property follows a cached transition from the previous shape.  This allows a call site to
+ * remember where a property was found for one shape and reuse that for every object of the same shape.
+ */
+public final class Shape {
+	public static final Shape EMPTY = new Shape(new Symbol[0]);
+	
+	private final Symbol[] symbols;		// The symbol in each slot
+	private final HashMap<Symbol, Integer> slots;
+	private final ConcurrentHashMap<Symbol, Shape> transitions;
+	
+	private Shape(Symbol[] symbols) {
+		this.symbols = symbols;
+		this.slots = new HashMap<Symbol, Integer>();
+		this.transitions = new ConcurrentHashMap<Symbol, Shape>();
+		
+		for (int i = 0; i < symbols.length; i++) {
+			slots.put(symbols[i], i);
+		}
+	}
+	
+	/**
+	 * Returns the slot of a property, or -1 if objects of this shape do not have it.
+	 */
+	public int getSlot(Symbol symbol) {
+		Integer slot = slots.get(symbol);
+		return slot == null ? -1 : slot;
+	}
+	
+	public Symbol getSymbol(int slot) {
+		return symbols[slot];
+	}
+	
+	/**
+	 * Returns the number of properties.
+	 */
+	public int size() {
+		return symbols.length;
+	}
+	
+	/**
+	 * Returns the shape that results from adding a property, which is given the next slot.
+	 */
+	public Shape withProperty(Symbol symbol) {
+		assert getSlot(symbol) < 0 : "Shape already has property " + symbol;
+		
+		Shape shape = transitions.get(symbol);
+		if (shape == null) {
+			Symbol[] newSymbols = new Symbol[symbols.length + 1];
+			System.arraycopy(symbols, 0, newSymbols, 0, symbols.length);
+			newSymbols[symbols.length] = symbol;
+			
+			Shape newShape = new Shape(newSymbols);
+			shape = transitions.putIfAbsent(symbol, newShape);
+			if (shape == null)
+				shape = newShape;
+		}
+		return shape;
+	}
+	
+	/**
+	 * Returns the shape that results from removing a property.  The slots after the removed one each move down by one.
+	 */
+	public Shape withoutProperty(Symbol symbol) {
+		Shape shape = EMPTY;
+		for (Symbol s : symbols) {
+			if (s != symbol)
+				shape = shape.withProperty(s);
+		}
+		return shape;
+	}
+}
@@ -0,0 +1,179 @@
+package words.environment;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An index of objects by the cell they occupy, used to find objects at or next to a position without scanning every object.
+ *
+ * Cells are kept in an open-addressing hash table keyed by a primitive long packed from a position's x and y coordinates, so that
+ * lookups neither box keys nor allocate.  Empty cells are removed so that the table does not grow as objects wander.
+ */
+public class SpatialIndex {
+	private static final int INITIAL_CAPACITY = 64;
+	private static final List<WordsObject> EMPTY_CELL = Collections.emptyList();
+
+	private long[] keys;
+	private ArrayList<?>[] cells;		// A null cell marks an empty slot
+	private int size;
+	private int shift;					// 64 - log2(capacity), for Fibonacci hashing
+	private int modificationCount;		// Incremented whenever any object is added, removed or moved
+
+	public SpatialIndex() {
+		allocate(INITIAL_CAPACITY);
+	}
+
+	/**
+	 * Packs a position into a key suitable for looking up a cell.
+	 */
+	public static long key(int x, int y) {
+		return ((long) x << 32) | (y & 0xFFFFFFFFL);
+	}
+
+	/**
+	 * Adds an object to the cell of its current position.
+	 */
+	public void add(WordsObject object) {
+		Position p = object.getCurrentPosition();
+		addToCell(key(p.x, p.y), object);
+		modificationCount++;
+	}
+
+	/**
+	 * Removes an object from the cell of its current position.
+	 */
+	public void remove(WordsObject object) {
+		Position p = object.getCurrentPosition();
+		removeFromCell(key(p.x, p.y), object);
+		modificationCount++;
+	}
+
+	/**
+	 * Moves an object from the cell of a previous position to the cell of its current position.
+	 */
+	public void move(WordsObject object, int oldX, int oldY) {
+		Position p = object.getCurrentPosition();
+		long oldKey = key(oldX, oldY);
+		long newKey = key(p.x, p.y);
+		if (oldKey != newKey) {
+			removeFromCell(oldKey, object);
+			addToCell(newKey, object);
+		}
+		modificationCount++;
+	}
+
+	/**
+	 * Returns the objects at a given position, in the order they entered the cell.  The returned list must not be modified,
+	 * and reflects later changes to the cell, so callers that may move objects while iterating must copy it first.
+	 */
+	@SuppressWarnings("unchecked")
+	public List<WordsObject> getObjectsAt(int x, int y) {
+		int slot = findSlot(key(x, y));
+		return cells[slot] == null ? EMPTY_CELL : (List<WordsObject>) cells[slot];
+	}
+
+	/**
+	 * Returns a counter that changes whenever an object is added, removed or moved, allowing callers to detect that
+	 * a previous lookup may be stale.
+	 */
+	public int getModificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns the number of non-empty cells.
+	 */
+	public int getNumCells() {
+		return size;
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		cells = new ArrayList<?>[capacity];
+		shift = 64 - Integer.numberOfTrailingZeros(capacity);
+		size = 0;
+	}
+
+	private int home(long key) {
+		return (int) ((key * 0x9E3779B97F4A7C15L) >>> shift);
+	}
+
+	/**
+	 * Returns the slot holding the given key, or the empty slot where it would be inserted.
+	 */
+	private int findSlot(long key) {
+		int mask = cells.length - 1;
+		int slot = home(key);
+		while (cells[slot] != null && keys[slot] != key)
+			slot = (slot + 1) & mask;
+		return slot;
+	}
+
+	@SuppressWarnings("unchecked")
+	private void addToCell(long key, WordsObject object) {
+		int slot = findSlot(key);
+		if (cells[slot] == null) {
+			keys[slot] = key;
+			cells[slot] = new ArrayList<WordsObject>(2);
+			size++;
+		}
+		((ArrayList<WordsObject>) cells[slot]).add(object);
+
+		if (size * 2 > cells.length)
+			resize(cells.length * 2);
+	}
+
+	private void removeFromCell(long key, WordsObject object) {
+		int slot = findSlot(key);
+		if (cells[slot] == null)
+			return;
+
+		ArrayList<?> cell = cells[slot];
+		cell.remove(object);
+		if (cell.isEmpty())
+			deleteSlot(slot);
+	}
+
+	/**
+	 * Empties a slot, shifting back any later entries of the same probe sequence so that lookups never stop early.
+	 */
+	private void deleteSlot(int slot) {
+		int mask = cells.length - 1;
+		int hole = slot;
+		int next = slot;
+
+		while (true) {
+			next = (next + 1) & mask;
+			if (cells[next] == null)
+				break;
+
+			// An entry may fill the hole only if its home slot is not cyclically between the hole and its current slot
+			int h = home(keys[next]);
+			boolean homeBetween = hole <= next ? (hole < h && h <= next) : (hole < h || h <= next);
+			if (!homeBetween) {
+				keys[hole] = keys[next];
+				cells[hole] = cells[next];
+				hole = next;
+			}
+		}
+
+		cells[hole] = null;
+		size--;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		ArrayList<?>[] oldCells = cells;
+		allocate(capacity);
+
+		for (int i = 0; i < oldCells.length; i++) {
+			if (oldCells[i] != null) {
+				int slot = findSlot(oldKeys[i]);
+				keys[slot] = oldKeys[i];
+				cells[slot] = oldCells[i];
+				size++;
+			}
+		}
+	}
+}
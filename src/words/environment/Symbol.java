@@ -0,0 +1,49 @@
+package words.environment;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An interned property name.  There is exactly one Symbol for each name, so symbols can be compared by identity and used as
+ * cheap keys.  The built-in properties have their own constants so that they can be recognized without comparing strings.
+ */
+public final class Symbol {
+	private static final ConcurrentHashMap<String, Symbol> symbols = new ConcurrentHashMap<String, Symbol>();
+	
+	public static final Symbol ROW = intern("row");
+	public static final Symbol COLUMN = intern("column");
+	public static final Symbol NAME = intern("name");
+	public static final Symbol CLASS = intern("class");
+	
+	private final String name;
+	
+	private Symbol(String name) {
+		this.name = name;
+	}
+	
+	/**
+	 * Returns the symbol for a name, creating it the first time the name is seen.
+	 */
+	public static Symbol intern(String name) {
+		Symbol symbol = symbols.get(name);
+		if (symbol == null) {
+			symbol = symbols.computeIfAbsent(name, Symbol::new);
+		}
+		return symbol;
+	}
+	
+	/**
+	 * Returns whether this is one of the built-in properties every object has.
+	 */
+	public boolean isBuiltIn() {
+		return this == ROW || this == COLUMN || this == NAME || this == CLASS;
+	}
+	
+	public String getName() {
+		return name;
+	}
+	
+	@Override
+	public String toString() {
+		return name;
+	}
+}
@@ -8,6 +8,12 @@ import words.ast.*;
  * A wait action (basic action) for a WordsObject's action queue.
  */
 public class WaitAction extends Action {
+	/**
+	 * The implicit wait of an object with nothing to do.  It is shared by all idle objects so that idle frames allocate
+	 * nothing, and is only ever reported as an object's last action, never enqueued.
+	 */
+	public static final WaitAction IDLE = new WaitAction(null);
+	
 	private AST lengthExpression;
 
 	public WaitAction(Scope scope) {
@@ -19,11 +25,25 @@ public class WaitAction extends Action {
 		super(scope);
 		this.lengthExpression = lengthExpression;
 	}
+	
+	/**
+	 * Private constructor used to create an executable wait action that lasts for length frames.
+	 */
+	private WaitAction(Scope scope, int length) {
+		super(scope);
+		this.lengthExpression = null;
+		this.repetitions = length;
+	}
 
 	@Override
 	public boolean isExecutable() {
 		return (lengthExpression == null);
 	}
+	
+	@Override
+	public boolean isLocal() {
+		return true;
+	}
 
 	@Override
 	public void doExecute(WordsObject object, Environment environment) throws WordsProgramException {
@@ -36,7 +56,7 @@ public class WaitAction extends Action {
 
 		ASTValue value;
 		try {
-			value = lengthExpression.eval(environment).tryCoerceTo(ASTValue.Type.NUM);
+			value = lengthExpression.execute(environment).tryCoerceTo(ASTValue.Type.NUM);
 		} catch (WordsRuntimeException e) {
 			throw new WordsProgramException(lengthExpression, e);
 		}
@@ -52,10 +72,9 @@ public class WaitAction extends Action {
 			throw new WordsProgramException(lengthExpression, new InvalidTypeException("a positive number", String.format("%d", lengthValue)));
 		}
 
-		// Decompose into executable 1-frame waits
+		// Decompose into a run of executable 1-frame waits
 		LinkedList<Action> list = new LinkedList<Action>();
-		for (int i = 0; i < lengthValue; i++)
-			list.add(new WaitAction(scope));
+		list.add(new WaitAction(scope, lengthValue));
 
 		return list;
 	}
@@ -1,6 +1,7 @@
 package words.environment;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 import words.exceptions.CustomActionAlreadyExistsException;
 import words.exceptions.CustomActionNotFoundException;
@@ -9,14 +10,18 @@ import words.exceptions.CustomActionNotFoundException;
  * A class as specified in the Words language.
  */
 public class WordsClass {
-	private HashMap<String, Variable> properties;
+	private static final Variable MISSING = new Variable(Variable.VariableType.NOTHING);	// Caches a missing property
+	
+	private HashMap<Symbol, Variable> properties;
+	private ConcurrentHashMap<Symbol, Variable> resolvedProperties;	// Caches lookups through the class chain
 	private HashMap<String, CustomActionDefinition> customActions;
 	private WordsClass parent;
 	private String className;
 	private ArrayList<WordsClass> children;
 	
 	public WordsClass(String className, WordsClass parent) {
-		properties = new HashMap<String, Variable>();
+		properties = new HashMap<Symbol, Variable>();
+		resolvedProperties = new ConcurrentHashMap<Symbol, Variable>();
 		customActions = new HashMap<String, CustomActionDefinition>();
 		children = new ArrayList<WordsClass>();
 		this.parent = parent;
@@ -31,6 +36,13 @@ public class WordsClass {
 		return className;
 	}
 	
+	/**
+	 * Get the class this one inherits from, or null for the base superclass
+	 */
+	public WordsClass getParent() {
+		return parent;
+	}
+	
 	/**
 	 * Register a child to its parent
 	 * 
@@ -50,11 +62,8 @@ public class WordsClass {
 	 * Retrieves a property of a class by looking only at the class itself, ignoring its class chain.
 	 * A missing property returns null.
 	 */
-	private Variable getOwnProperty(String propertyName) {
-		if (properties.containsKey(propertyName))
-			return properties.get(propertyName);
-		else
-			return null;
+	private Variable getOwnProperty(Symbol propertyName) {
+		return properties.get(propertyName);
 	}
 	
 	/**
@@ -62,6 +71,30 @@ public class WordsClass {
 	 * A missing property returns a WordsProperty of type NOTHING.
 	 */
 	public Variable getProperty(String propertyName) {
+		return getProperty(Symbol.intern(propertyName));
+	}
+	
+	/**
+	 * Retrieves a property on a class by looking at the class itself and its class chain.  The result of walking the
+	 * chain is cached until a property is set on this class or one of its ancestors.
+	 * A missing property returns a WordsProperty of type NOTHING.
+	 */
+	public Variable getProperty(Symbol propertyName) {
+		Variable property = resolvedProperties.get(propertyName);
+		
+		if (property == null) {
+			property = findProperty(propertyName);
+			resolvedProperties.put(propertyName, property);
+		}
+		
+		// A missing property is cached as a shared NOTHING, but callers each get their own
+		if (property == MISSING)
+			return new Variable(Variable.VariableType.NOTHING);
+		
+		return property;
+	}
+	
+	private Variable findProperty(Symbol propertyName) {
 		WordsClass lookupClass = this;
 		
 		while (lookupClass != null) {
@@ -73,7 +106,7 @@ public class WordsClass {
 			lookupClass = lookupClass.parent;
 		}
 		
-		return new Variable(Variable.VariableType.NOTHING);
+		return MISSING;
 	}
 	
 	/**
@@ -82,7 +115,18 @@ public class WordsClass {
 	 */
 	public void setProperty(String propertyName, Variable property) {
 		if (property.type != Variable.VariableType.NOTHING) {
-			properties.put(propertyName, property);
+			properties.put(Symbol.intern(propertyName), property);
+			invalidateResolvedProperties();
+		}
+	}
+	
+	/**
+	 * Forgets the cached property lookups of this class and every class that inherits from it.
+	 */
+	private void invalidateResolvedProperties() {
+		resolvedProperties.clear();
+		for (WordsClass child : children) {
+			child.invalidateResolvedProperties();
 		}
 	}
 	
@@ -10,45 +10,71 @@ public class WordsEventListener {
 	private AST predicate;
 	private AST statementList;
 	private boolean temporary;
+	private MatchNode condition;		// The predicate's node in the listener network, unless it is a basic action predicate
+	private boolean fired;				// Whether the statement list ran during the last execution
 
-	public WordsEventListener(AST predicate, AST statementList, boolean temporary) {
+	public WordsEventListener(AST predicate, MatchNode condition, AST statementList, boolean temporary) {
 		this.predicate = predicate;
+		this.condition = condition;
 		this.statementList = statementList;
 		this.temporary = temporary;
 	}
 	
+	/**
+	 * Returns the predicate's node in the listener network, or null for a basic action predicate.
+	 */
+	public MatchNode getCondition() {
+		return condition;
+	}
+	
+	/**
+	 * Returns true if the statement list ran, at least once, the last time this listener was executed.
+	 */
+	public boolean hasFired() {
+		return fired;
+	}
+	
+	/**
+	 * Returns true if this listener's predicate is re-evaluated only when something it read has changed.
+	 */
+	public boolean isTracked() {
+		return condition != null && condition.isTracked();
+	}
+	
 	/**
 	 * Execute a listener
 	 * @return false if the listener should be deleted by the caller. 
 	 * @throws WordsProgramException
 	 */
 	public boolean execute(Environment environment) throws WordsProgramException {
+		fired = false;
 		if (predicate instanceof INodeBasicActionPredicate) {
 			boolean predVal = false;
 			try {
-				predVal = predicate.eval(environment, statementList).booleanValue;
+				predVal = predicate.execute(environment, statementList).booleanValue;
 			} catch (WordsRuntimeException e) {
 				throw new WordsProgramException(statementList, e);
 			}
+			fired = predVal;
 			return !temporary || predVal;
 		} else {
-			ASTValue predicateValue;
+			boolean predicateValue;
 			try {
-				predicateValue = predicate.eval(environment);
+				predicateValue = condition.evaluate(environment);
 			} catch (WordsRuntimeException e) {
 				throw new WordsProgramException(predicate, e);
 			}
-			
-			assert predicateValue.type == ASTValue.Type.BOOLEAN : "Predicate has type " + predicateValue.type.toString();
 	
-			if (predicateValue.booleanValue == true) {
+			if (predicateValue) {
+				fired = true;
 				try {
-					statementList.eval(environment);
+					statementList.execute(environment);
 				} catch (WordsRuntimeException e) {
 					throw new WordsProgramException(statementList, e);
 				}
 			} else {
 				if (temporary) {
+					environment.getListenerNetwork().release(condition);
 					return false;
 				}
 			}
@@ -56,4 +82,4 @@ public class WordsEventListener {
 			return true;
 		}
 	}
-}
\ No newline at end of file
+}
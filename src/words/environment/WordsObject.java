@@ -1,6 +1,8 @@
 package words.environment;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -12,9 +14,22 @@ import words.exceptions.*;
  * An object as specified in the Words language.
  */
 public class WordsObject {
+	private static final Variable[] NO_VALUES = new Variable[0];
+	
+	/**
+	 * Orders objects by when they were added to their environment.
+	 */
+	public static final Comparator<WordsObject> BY_CREATION_ORDER = new Comparator<WordsObject>() {
+		@Override
+		public int compare(WordsObject a, WordsObject b) {
+			return Long.compare(a.getCreationOrder(), b.getCreationOrder());
+		}
+	};
+	
 	private String objectName;
 	private WordsClass wordsClass;
-	private HashMap<String, Variable> properties;
+	private Shape shape;					// Maps this object's own properties to slots of values
+	private Variable[] values;
 	private LinkedList<Action> actionQueue;
 	private Position currentPosition;
 	private String currentMessage;
@@ -22,6 +37,17 @@ public class WordsObject {
 	private boolean shouldRemove;
 	private boolean createdInThisFrame;
 	private Position startOfFramePosition;
+	private SpatialIndex spatialIndex;		// The index of the environment this object lives in, if any
+	private long creationOrder;				// Orders objects by when they were added to their environment
+	private ActionIndex actionIndex;		// The action index of the environment this object lives in, if any
+	private ActionIndex.Kind indexedKind;	// The kind of the last action as recorded in the action index
+	private DependencyTracker dependencyTracker;	// The dependency tracker of the environment this object lives in, if any
+	
+	// While a local action runs in parallel with those of other objects, changes to the shared indexes wait for commitLocalAction()
+	private boolean deferringIndexUpdates;
+	private boolean deferredMove;
+	private int deferredX;
+	private int deferredY;
 	
 	// While an object is expanding a custom action, actions are enqueued in a separate list
 	private boolean isExpandingCustomAction;
@@ -33,7 +59,8 @@ public class WordsObject {
 		this.objectName = objectName;
 		this.currentPosition = cell;
 		this.actionQueue = new LinkedList<Action>();
-		this.properties = new HashMap<String, Variable>();
+		this.shape = Shape.EMPTY;
+		this.values = NO_VALUES;
 		this.customActionExpansion = new LinkedList<Action>();
 		this.isExpandingCustomAction = false;
 		this.referers = new HashMap<WordsObject, ArrayList<Variable>>();
@@ -77,73 +104,131 @@ public class WordsObject {
 		return customActionExpansion;
 	}
 
-	/**
-	 * Retrieves a property of an object by looking only at the object itself, ignoring its class chain.
-	 * A missing property returns null.
-	 */
-	private Variable getOwnProperty(String propertyName) {
-		if (properties.containsKey(propertyName))
-			return properties.get(propertyName);
-		else
-			return null;
-	}
-
 	/**
 	 * Retrieves a property on an object by looking at the object itself and its class chain.
 	 * A missing property returns a WordsProperty of type NOTHING.
 	 */
 	public Variable getProperty(String propertyName) {
+		Symbol symbol = Symbol.intern(propertyName);
+		return getProperty(symbol, symbol.isBuiltIn() ? -1 : shape.getSlot(symbol));
+	}
+	
+	/**
+	 * Retrieves a property the same way as {@link #getProperty(String)}, using a cache to find its slot.
+	 */
+	public Variable getProperty(PropertyCache cache) {
+		Symbol symbol = cache.getSymbol();
+		return getProperty(symbol, symbol.isBuiltIn() ? -1 : cache.getSlot(shape));
+	}
+	
+	private Variable getProperty(Symbol symbol, int slot) {
+		if (dependencyTracker != null)
+			dependencyTracker.propertyRead(this, symbol);
+		
 		// Special handling of "row" "column" "name" and "class" properties
-		if (propertyName.equals("row"))
+		if (symbol == Symbol.ROW)
 			return new Variable(currentPosition.y);
-		else if (propertyName.equals("column"))
+		else if (symbol == Symbol.COLUMN)
 			return new Variable(currentPosition.x);
-		else if (propertyName.equals("name"))
+		else if (symbol == Symbol.NAME)
 			return new Variable(objectName);
-		else if (propertyName.equals("class"))
+		else if (symbol == Symbol.CLASS)
 			return new Variable(wordsClass.getClassName());
-
-		Variable property = getOwnProperty(propertyName);
-
-		if (property != null)
-			return property;
+		
+		if (slot >= 0)
+			return values[slot];
 		else
-			return wordsClass.getProperty(propertyName);
+			return wordsClass.getProperty(symbol);
 	}
 
 	/**
 	 * Assigns a property to an object.  Assigning NOTHING removes the property, if it exists.
 	 */
 	public void setProperty(String propertyName, Variable property) throws WordsRuntimeException {
+		Symbol symbol = Symbol.intern(propertyName);
+		setProperty(symbol, symbol.isBuiltIn() ? -1 : shape.getSlot(symbol), property);
+	}
+	
+	/**
+	 * Assigns a property the same way as {@link #setProperty(String, Variable)}, using a cache to find its slot.
+	 */
+	public void setProperty(PropertyCache cache, Variable property) throws WordsRuntimeException {
+		Symbol symbol = cache.getSymbol();
+		setProperty(symbol, symbol.isBuiltIn() ? -1 : cache.getSlot(shape), property);
+	}
+	
+	private void setProperty(Symbol symbol, int slot, Variable property) throws WordsRuntimeException {
 		// Special handling of "row" and "column" properties
-		if (propertyName.equals("row") || propertyName.equals("column")) {
+		if (symbol == Symbol.ROW || symbol == Symbol.COLUMN) {
 			if (property.type != Variable.VariableType.NUM) {
 				throw new InvalidTypeException(Variable.VariableType.NUM.toString(), property.type.toString());
 			}
 
-			if (propertyName.equals("row"))
+			int oldX = currentPosition.x;
+			int oldY = currentPosition.y;
+			
+			if (symbol == Symbol.ROW)
 				currentPosition.y = (int) Math.round(property.numProperty);
 			else
 				currentPosition.x = (int) Math.round(property.numProperty);
 			
+			positionChanged(oldX, oldY);
 			return;
 		}
 		
 		// User cannot change "name" and "class"
-		if (propertyName.equals("name") || propertyName.equals("class")) {
-			throw new ModifyObjectPropertyException(propertyName);
+		if (symbol == Symbol.NAME || symbol == Symbol.CLASS) {
+			throw new ModifyObjectPropertyException(symbol.getName());
 		}
 
-		if (properties.containsKey(propertyName) && property.type == Variable.VariableType.NOTHING)
-			properties.remove(propertyName);
+		if (dependencyTracker != null)
+			dependencyTracker.propertyWritten(this, symbol);
+		
+		if (slot >= 0 && property.type == Variable.VariableType.NOTHING)
+			removeSlot(slot);
 		else {
 			if (property.type == VariableType.OBJECT) {
 				property.objProperty.updateReferers(this, property);
 			}
-			properties.put(propertyName, property);
+			
+			if (slot >= 0)
+				values[slot] = property;
+			else
+				addSlot(symbol, property);
 		}
 	}
 	
+	/**
+	 * Gives this object a new property, moving it to the shape that has the property as its last slot.
+	 */
+	private void addSlot(Symbol symbol, Variable property) {
+		Shape newShape = shape.withProperty(symbol);
+		int slot = newShape.size() - 1;
+		
+		if (slot >= values.length)
+			values = Arrays.copyOf(values, Math.max(4, values.length * 2));
+		
+		values[slot] = property;
+		shape = newShape;
+	}
+	
+	/**
+	 * Takes away a property, moving it to the shape without it.  Later slots move down by one.
+	 */
+	private void removeSlot(int slot) {
+		int size = shape.size();
+		System.arraycopy(values, slot + 1, values, slot, size - slot - 1);
+		values[size - 1] = null;
+		shape = shape.withoutProperty(shape.getSymbol(slot));
+	}
+	
+	/**
+	 * Returns the layout of this object's own properties.
+	 */
+	public Shape getShape() {
+		return shape;
+	}
+	
 	public void updateReferers(WordsObject referringObject, Variable referringProperty) {
 		ArrayList<Variable> referringProperties;
 		if ((referringProperties = referers.get(referringObject)) == null) {
@@ -177,26 +262,113 @@ public class WordsObject {
 	
 	public void moveUp() {
 		this.currentPosition.y++;
+		positionChanged(currentPosition.x, currentPosition.y - 1);
 	}
 
 	public void moveDown() {
 		this.currentPosition.y--;
+		positionChanged(currentPosition.x, currentPosition.y + 1);
 	}
 
 	public void moveLeft() {
 		this.currentPosition.x--;
+		positionChanged(currentPosition.x + 1, currentPosition.y);
 	}
 
 	public void moveRight() {
 		this.currentPosition.x++;
+		positionChanged(currentPosition.x - 1, currentPosition.y);
+	}
+	
+	/**
+	 * Keeps the spatial index up to date after the current position has changed from the given coordinates.
+	 */
+	private void positionChanged(int oldX, int oldY) {
+		if (deferringIndexUpdates) {
+			if (!deferredMove) {
+				deferredMove = true;
+				deferredX = oldX;
+				deferredY = oldY;
+			}
+			return;
+		}
+		
+		if (spatialIndex != null)
+			spatialIndex.move(this, oldX, oldY);
+		
+		if (dependencyTracker != null) {
+			dependencyTracker.propertyWritten(this, Symbol.ROW);
+			dependencyTracker.propertyWritten(this, Symbol.COLUMN);
+		}
+	}
+	
+	/**
+	 * Registers this object with the environment it is added to.  A null index detaches the object when it is removed.
+	 */
+	public void setSpatialIndex(SpatialIndex spatialIndex) {
+		this.spatialIndex = spatialIndex;
+	}
+	
+	/**
+	 * Registers this object with the action index of the environment it is added to.  A null index detaches the object
+	 * when it is removed.
+	 */
+	public void setActionIndex(ActionIndex actionIndex) {
+		if (this.actionIndex != null && indexedKind != null)
+			this.actionIndex.update(this, indexedKind, null);
+		
+		this.actionIndex = actionIndex;
+		this.indexedKind = null;
+	}
+	
+	/**
+	 * Registers this object with the dependency tracker of the environment it is added to, so that writes to its properties mark
+	 * the listeners that read them as stale.  A null tracker detaches the object when it is removed.
+	 */
+	public void setDependencyTracker(DependencyTracker dependencyTracker) {
+		this.dependencyTracker = dependencyTracker;
+	}
+	
+	/**
+	 * Records the action performed in this frame, keeping the action index up to date.
+	 */
+	private void setLastAction(Action action) {
+		lastAction = action;
+		if (!deferringIndexUpdates)
+			updateActionIndex();
+	}
+	
+	/**
+	 * Moves this object to the entries of the action index for the kind of its last action, if that kind has changed.
+	 */
+	private void updateActionIndex() {
+		if (actionIndex != null) {
+			ActionIndex.Kind kind = ActionIndex.kindOf(lastAction);
+			if (kind != indexedKind) {
+				actionIndex.update(this, indexedKind, kind);
+				indexedKind = kind;
+			}
+		}
+	}
+	
+	public void setCreationOrder(long creationOrder) {
+		this.creationOrder = creationOrder;
+	}
+	
+	/**
+	 * Returns a number that increases with the order in which objects were added to their environment.
+	 */
+	public long getCreationOrder() {
+		return creationOrder;
 	}
 
 	/**
 	 * Executes the next action on this object's action queue, updating its lastAction
 	 * property accordingly.  An object will not execute an action if it was just created
 	 * in this frame.
+	 * @return true if an action was performed, false if the object was idle or was just created
 	 */
-	public void executeNextAction(Environment environment) throws WordsProgramException {
+	public boolean executeNextAction(Environment environment) throws WordsProgramException {
 		if (createdInThisFrame) {
 			createdInThisFrame = false;
 		} else {
@@ -209,18 +381,73 @@ public class WordsObject {
 					// executed some immediate statements but caused no new actions to be enqueued
 					// In this case, we are done
 					if (actionQueue.isEmpty()) {
-						lastAction = new WaitAction(environment.getCurrentScope());
-						return;
+						setLastAction(WaitAction.IDLE);
+						return false;
 					}
 				}
 				
-				Action action = actionQueue.pop();
-				lastAction = action;
+				// A repeated action stays at the front of the queue until its last repetition
+				Action action = actionQueue.peek();
+				if (action.finishRepetition())
+					actionQueue.pop();
+				setLastAction(action);
 				action.execute(this, environment);
+				return true;
 			} else {
-				lastAction = new WaitAction(environment.getCurrentScope());
+				setLastAction(WaitAction.IDLE);
 			}
 		}
+		return false;
+	}
+	
+	/**
+	 * Returns true if the next call to executeNextAction() would only change this object: the object was just created, is idle,
+	 * or the action at the front of its queue is local.
+	 */
+	public boolean hasLocalNextAction() {
+		if (createdInThisFrame || actionQueue.isEmpty())
+			return true;
+		
+		Action action = actionQueue.peek();
+		return action.isExecutable() && action.isLocal();
+	}
+	
+	/**
+	 * Does the same as executeNextAction() for an object whose next action is local, but may be called for different objects
+	 * at the same time.  The changes to the environment's indexes are held back until commitLocalAction() is called, which
+	 * must happen before anything else looks at the environment.
+	 * @return true if an action was performed, false if the object was idle or was just created
+	 */
+	public boolean executeLocalAction() throws WordsProgramException {
+		assert hasLocalNextAction() : "Attempted to execute a non-local action locally";
+		deferringIndexUpdates = true;
+		
+		if (createdInThisFrame) {
+			createdInThisFrame = false;
+			return false;
+		} else if (actionQueue.isEmpty()) {
+			setLastAction(WaitAction.IDLE);
+			return false;
+		}
+		
+		Action action = actionQueue.peek();
+		if (action.finishRepetition())
+			actionQueue.pop();
+		setLastAction(action);
+		action.executeLocally(this);
+		return true;
+	}
+	
+	/**
+	 * Applies the changes to the environment's indexes held back by executeLocalAction().
+	 */
+	public void commitLocalAction() {
+		deferringIndexUpdates = false;
+		if (deferredMove) {
+			deferredMove = false;
+			positionChanged(deferredX, deferredY);
+		}
+		updateActionIndex();
 	}
 	
 	public boolean movedInThisFrame() {
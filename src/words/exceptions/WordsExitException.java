@@ -0,0 +1,17 @@
+package words.exceptions;
+/**
+ * Thrown by an exit statement to end the world it runs in.  It is unchecked, so that it passes through everything that handles
+ * the errors of a Words program on its way to the frame loop, which stops the world.
+ */
+@SuppressWarnings("serial")
+public class WordsExitException extends RuntimeException {
+
+	public WordsExitException() {
+		super(null, null, false, false);
+	}
+
+	@Override
+	public String toString() {
+		return "Exit.";
+	}
+}
@@ -0,0 +1,105 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import words.BatchRunner;
+import words.Options;
+
+public class TestBatchRunner {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private Options options() {
+		Options options = new Options();
+		options.frameLimitEnabled = true;
+		options.maxFrames = 4;
+		return options;
+	}
+
+	private File program(String name, String source) throws IOException {
+		File file = folder.newFile(name);
+		Files.write(file.toPath(), source.getBytes(StandardCharsets.UTF_8));
+		return file;
+	}
+
+	private String read(File directory, String name) throws IOException {
+		return new String(Files.readAllBytes(new File(directory, name).toPath()), StandardCharsets.UTF_8);
+	}
+
+	@Test
+	public void worldsRunConcurrentlyWithSeparateOutput() throws IOException, InterruptedException {
+		ArrayList<File> programs = new ArrayList<File>();
+		for (int i = 0; i < 8; i++) {
+			programs.add(program("Move" + i + ".words", "Fred is a thing at 0," + i + ".\nMake Fred move left 2.\n"));
+		}
+		programs.add(program("Exit.words", "Alex is a thing at 0,0.\nExit.\n"));
+		File output = folder.newFolder("output");
+
+		List<BatchRunner.Result> results = new BatchRunner(options(), 3).run(programs, output);
+
+		assertEquals(9, results.size());
+		for (int i = 0; i < 8; i++) {
+			assertFalse(results.get(i).failed());
+			assertFalse(results.get(i).exited);
+			assertEquals(4, results.get(i).statistics.getFrames());
+			String nl = System.lineSeparator();
+			assertEquals("frame #: 1" + nl + "(0," + i + "):" + nl + "<thing> Fred" + nl
+					+ "frame #: 2" + nl + "(-1," + i + "):" + nl + "<thing> Fred" + nl
+					+ "frame #: 3" + nl + "(-2," + i + "):" + nl + "<thing> Fred" + nl
+					+ "frame #: 4" + nl + "(-2," + i + "):" + nl + "<thing> Fred" + nl, read(output, "Move" + i + ".words.log"));
+		}
+		assertTrue(results.get(8).exited);
+		assertEquals("", read(output, "Exit.words.log"));
+	}
+
+	@Test
+	public void missingProgramFailsOnlyItsWorld() throws IOException, InterruptedException {
+		File output = folder.newFolder("output");
+		List<File> programs = Arrays.asList(new File(folder.getRoot(), "Missing.words"), program("Idle.words", "Alex is a thing at 0,0.\n"));
+
+		List<BatchRunner.Result> results = new BatchRunner(options(), 2).run(programs, output);
+
+		assertTrue(results.get(0).failed());
+		assertFalse(results.get(1).failed());
+		assertTrue(BatchRunner.report(results, 0, 1000000000L).startsWith("2 worlds (1 failed), 2.0 worlds/s; 4 frames"));
+	}
+
+	@Test
+	public void syntaxErrorsFailTheWorldAndGoToItsErrorFile() throws IOException, InterruptedException {
+		File output = folder.newFolder("output");
+		List<File> programs = Arrays.asList(program("Broken.words", "Alex is a thing\n\nBo is a thing at 0,0.\n"));
+
+		List<BatchRunner.Result> results = new BatchRunner(options(), 1).run(programs, output);
+
+		assertTrue(results.get(0).failed());
+		assertTrue(read(output, "Broken.words.err").startsWith("Error: syntax error"));
+		assertEquals("", read(output, "Broken.words.log"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void programsMustNotShareANameAndOutputFiles() throws IOException, InterruptedException {
+		folder.newFolder("a");
+		folder.newFolder("b");
+		List<File> programs = Arrays.asList(program("a/test.words", "Alex is a thing at 0,0.\n"),
+				program("b/test.words", "Bo is a thing at 0,0.\n"));
+
+		new BatchRunner(options(), 2).run(programs, folder.newFolder("output"));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void batchNeedsFrameLimit() {
+		new BatchRunner(new Options(), 2);
+	}
+}
@@ -0,0 +1,49 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import words.DensityMap;
+import words.Viewport;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestDensityMap {
+	Environment environment = new Environment();
+
+	@Test
+	public void objectsAreCountedByTile() throws WordsRuntimeException {
+		environment.createObject("Alex", "thing", new Position(0,0));
+		environment.createObject("Bo", "thing", new Position(1,1));
+		environment.createObject("Cy", "thing", new Position(2,0));
+		environment.createObject("Di", "thing", new Position(9,9));
+
+		DensityMap map = DensityMap.capture(1, environment, new Viewport(0, 0, 4, 2), 2);
+		assertEquals(3, map.getWidth());
+		assertEquals(2, map.getHeight());
+		assertEquals(2, map.getCount(0, 0));
+		assertEquals(1, map.getCount(1, 0));
+		assertEquals(0, map.getCount(2, 1));
+		assertEquals(2, map.getMaxCount());
+	}
+
+	@Test
+	public void scanningObjectsMatchesLookingUpCells() throws WordsRuntimeException {
+		for (int i = 0; i < 200; i++) {
+			environment.createObject("Object" + i, "thing", new Position(i % 13 - 6, i % 17 - 8));
+		}
+
+		// The first viewport has fewer cells than there are objects, so its cells are looked up; the second is scanned for
+		Viewport small = new Viewport(-6, -8, 5, 6);
+		Viewport large = new Viewport(-6, -8, 17, 23);
+		DensityMap lookedUp = DensityMap.capture(1, environment, small, 3);
+		DensityMap scanned = DensityMap.capture(1, environment, large, 3);
+
+		for (int row = 0; row < lookedUp.getHeight(); row++) {
+			for (int column = 0; column < lookedUp.getWidth(); column++) {
+				assertEquals(lookedUp.getCount(column, row), scanned.getCount(column, row));
+			}
+		}
+	}
+}
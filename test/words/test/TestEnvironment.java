@@ -1,8 +1,13 @@
 package words.test;
 import static org.junit.Assert.*;
 
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+
 import org.junit.Test;
 
+import words.ast.*;
 import words.environment.*;
 import words.exceptions.*;
 
@@ -250,6 +255,264 @@ public class TestEnvironment {
 	public void parentClassDoesntExist() throws WordsRuntimeException {
 		environment.createClass("Person", "wing");
 	}
+	
+	/****************************************
+	 * Object Index Section
+	 ****************************************/
+	
+	@Test
+	public void objectsByClassIncludesSubclasses() throws WordsRuntimeException {
+		environment.createClass("Person", "thing");
+		environment.createClass("Man", "Person");
+		WordsObject rock = environment.createObject("Rock", "thing", new Position(0,0));
+		WordsObject alex = environment.createObject("Alex", "Person", new Position(0,0));
+		WordsObject james = environment.createObject("James", "Man", new Position(0,0));
 		
+		assertEquals("Base class contains all objects", 3, environment.getObjectsByClass("thing").size());
+		assertTrue("Base class contains its own objects", environment.getObjectsByClass("thing").contains(rock));
+		assertEquals("Class contains its own and its subclass's objects", 2, environment.getObjectsByClass("Person").size());
+		assertTrue("Class contains its own objects", environment.getObjectsByClass("Person").contains(alex));
+		assertTrue("Class contains its subclass's objects", environment.getObjectsByClass("Person").contains(james));
+		assertEquals("Leaf class contains only its own objects", 1, environment.getObjectsByClass("Man").size());
+	}
 	
+	@Test
+	public void objectsByClassIsLiveView() throws WordsRuntimeException {
+		environment.createClass("Person", "thing");
+		Collection<WordsObject> people = environment.getObjectsByClass("Person");
+		assertEquals("No objects yet", 0, people.size());
+		
+		environment.createObject("Alex", "Person", new Position(0,0));
+		assertEquals("View reflects newly created object", 1, people.size());
+	}
+	
+	@Test (expected = UnsupportedOperationException.class)
+	public void objectsByClassIsReadOnly() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		environment.getObjects().remove(alex);
+	}
+	
+	@Test
+	public void snapshotIsUnaffectedByCreation() throws WordsRuntimeException {
+		environment.createObject("Alex", "thing", new Position(0,0));
+		Collection<WordsObject> snapshot = environment.getObjectsSnapshot();
+		environment.createObject("James", "thing", new Position(0,0));
+		
+		assertEquals("Snapshot does not include later objects", 1, snapshot.size());
+		assertEquals("Live view includes later objects", 2, environment.getObjects().size());
+	}
+	
+	@Test
+	public void cleanupRemovesFromWholeHierarchy() throws WordsRuntimeException {
+		environment.createClass("Person", "thing");
+		environment.createClass("Man", "Person");
+		WordsObject james = environment.createObject("James", "Man", new Position(0,0));
+		environment.createObject("Alex", "Person", new Position(0,0));
+		
+		james.flagForRemoval();
+		environment.cleanup();
+		
+		assertFalse("Removed from base class", environment.getObjectsByClass("thing").contains(james));
+		assertFalse("Removed from parent class", environment.getObjectsByClass("Person").contains(james));
+		assertEquals("Removed from own class", 0, environment.getObjectsByClass("Man").size());
+		assertEquals("Other objects remain", 1, environment.getObjects().size());
+	}
+	
+	/****************************************
+	 * Spatial Index Section
+	 ****************************************/
+	
+	@Test
+	public void spatialIndexFollowsMoves() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		SpatialIndex spatialIndex = environment.getSpatialIndex();
+		assertTrue("Object is indexed at its starting cell", spatialIndex.getObjectsAt(0, 0).contains(alex));
+		
+		alex.moveUp();
+		alex.moveRight();
+		assertTrue("Object is indexed at its new cell", spatialIndex.getObjectsAt(1, 1).contains(alex));
+		assertEquals("Object is no longer indexed at its old cell", 0, spatialIndex.getObjectsAt(0, 0).size());
+		assertEquals("Empty cells are dropped", 1, spatialIndex.getNumCells());
+	}
+	
+	@Test
+	public void spatialIndexFollowsPositionAssignment() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		alex.setProperty("row", new Variable(-3));
+		alex.setProperty("column", new Variable(5));
+		
+		assertTrue("Object is indexed at its assigned cell", environment.getSpatialIndex().getObjectsAt(5, -3).contains(alex));
+		assertEquals("Object is only indexed once", 1, environment.getSpatialIndex().getNumCells());
+	}
+	
+	@Test
+	public void spatialIndexHandlesManyCells() throws WordsRuntimeException {
+		for (int i = 0; i < 200; i++) {
+			environment.createObject("Object" + i, "thing", new Position(i % 20 - 10, i / 20 - 5));
+		}
+		for (WordsObject object : environment.getObjectsSnapshot()) {
+			if (object.getCurrentPosition().x % 2 == 0) {
+				object.flagForRemoval();
+			}
+		}
+		environment.cleanup();
+		
+		SpatialIndex spatialIndex = environment.getSpatialIndex();
+		assertEquals("Removed objects' cells are dropped", 100, spatialIndex.getNumCells());
+		for (WordsObject object : environment.getObjects()) {
+			Position p = object.getCurrentPosition();
+			assertTrue("Remaining objects can be found", spatialIndex.getObjectsAt(p.x, p.y).contains(object));
+		}
+	}
+	
+	
+	/****************************************
+	 * Action Index Section
+	 ****************************************/
+	
+	@Test
+	public void actionIndexFollowsLastActions() throws WordsRuntimeException, WordsProgramException {
+		environment.createClass("Person", "thing");
+		WordsObject alex = environment.createObject("Alex", "Person", new Position(0,0));
+		WordsObject bo = environment.createObject("Bo", "thing", new Position(0,0));
+		
+		// Use up the fake wait that exists on new objects
+		alex.executeNextAction(environment);
+		bo.executeNextAction(environment);
+		assertEquals("New objects have not acted yet", 0, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT).size());
+		
+		bo.enqueueAction(new MoveAction(environment.getCurrentScope(), Direction.UP, null));
+		bo.executeNextAction(environment);
+		alex.executeNextAction(environment);
+		assertEquals("Waiting objects are listed in creation order", alex, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT).get(0));
+		assertEquals("Moving object is listed under its class's ancestors", bo, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.MOVE).get(0));
+		assertEquals("Moving object is not listed under other classes", 0, environment.getObjectsSnapshotByClass("Person", ActionIndex.Kind.MOVE).size());
+		
+		bo.executeNextAction(environment);
+		assertEquals("Object stops being listed as moving", 0, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.MOVE).size());
+		assertEquals("Both objects are waiting", 2, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT).size());
+		
+		alex.flagForRemoval();
+		environment.cleanup();
+		assertEquals("Removed object is no longer listed", 0, environment.getObjectsSnapshotByClass("Person", ActionIndex.Kind.WAIT).size());
+	}
+	
+	/****************************************
+	 * Dependency Tracker Section
+	 ****************************************/
+	
+	@Test
+	public void listenerIsReevaluatedOnlyAfterWhatItReadChanges() throws WordsRuntimeException, WordsProgramException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		AST alexRow = new INodeRetrieveProperty(new INodeReferenceList(new LNodeReference("Alex's")), new LNodeIdentifier("row"));
+		environment.createListener(new INodeLess(alexRow, new LNodeNum(5)), new INodeStatementList(), false);
+		WordsEventListener listener = environment.getEventListeners().iterator().next();
+		MatchNode condition = listener.getCondition();
+		DependencyTracker tracker = environment.getDependencyTracker();
+		
+		assertTrue("Predicate of variables and properties is tracked", listener.isTracked());
+		listener.execute(environment);
+		assertTrue(tracker.isUpToDate(condition));
+		
+		environment.createObject("Bo", "thing", new Position(0,0));
+		alex.setProperty("health", new Variable(3));
+		assertTrue("Unrelated writes keep the predicate up to date", tracker.isUpToDate(condition));
+		
+		alex.moveUp();
+		assertFalse("Moving the object read by the predicate makes it stale", tracker.isUpToDate(condition));
+		listener.execute(environment);
+		assertTrue(tracker.isUpToDate(condition));
+		
+		alex.flagForRemoval();
+		environment.cleanup();
+		assertFalse("Removing objects makes every predicate stale", tracker.isUpToDate(condition));
+	}
+	
+	@Test
+	public void trackedListenerMatchesPolling() throws WordsRuntimeException, WordsProgramException {
+		AST x = new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x"));
+		environment.createLocalVariable("x", new Variable(3));
+		environment.createListener(new INodeLess(x, new LNodeNum(5)), new INodeStatementList(), true);
+		WordsEventListener listener = environment.getEventListeners().iterator().next();
+		
+		assertTrue("Temporary listener is kept while its predicate holds", listener.execute(environment));
+		assertTrue("Cached value is reused", listener.execute(environment));
+		
+		environment.createLocalVariable("x", new Variable(7));
+		assertFalse("Writing the variable is seen on the next evaluation", listener.execute(environment));
+	}
+	
+	@Test
+	public void listenerThatScansObjectsIsPolled() {
+		AST adjacent = new INodeAdjacencyPredicate(new LNodeIdentifier("Alex"), new LNodeIdentifier("thing"));
+		environment.createListener(adjacent, new INodeStatementList(), false);
+		assertFalse(environment.getEventListeners().iterator().next().isTracked());
+	}
+	
+	/****************************************
+	 * Listener Network Section
+	 ****************************************/
+	
+	@Test
+	public void listenersShareCommonSubexpressions() throws WordsRuntimeException, WordsProgramException {
+		environment.createLocalVariable("x", new Variable(3));
+		environment.createLocalVariable("y", new Variable(1));
+		AST xIsSmall1 = new INodeLess(new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x")), new LNodeNum(5));
+		AST xIsSmall2 = new INodeLess(new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x")), new LNodeNum(5));
+		AST yIsSmall = new INodeLess(new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("y")), new LNodeNum(5));
+		environment.createListener(new INodeAnd(xIsSmall1, yIsSmall), new INodeStatementList(), false);
+		environment.createListener(new INodeNot(xIsSmall2), new INodeStatementList(), true);
+		
+		Iterator<WordsEventListener> listeners = environment.getEventListeners().iterator();
+		WordsEventListener first = listeners.next();
+		WordsEventListener second = listeners.next();
+		MatchNode shared = first.getCondition().getInputs().get(0);
+		assertSame("Identical comparisons share one node", shared, second.getCondition().getInputs().get(0));
+		assertEquals("And, not, and two comparisons", 4, environment.getListenerNetwork().size());
+		
+		first.execute(environment);
+		assertTrue("Shared condition is evaluated once for both listeners", environment.getDependencyTracker().isUpToDate(shared));
+		assertFalse("Temporary listener is removed when its predicate is false", second.execute(environment));
+		assertEquals("Nodes only the removed listener used are released", 3, environment.getListenerNetwork().size());
+	}
+	
+	@Test
+	public void conditionsEvaluatedInParallelMatchPolling() throws WordsRuntimeException, WordsProgramException {
+		environment.createLocalVariable("x", new Variable(3));
+		for (int k = 0; k < 10; k++) {
+			AST x = new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x"));
+			environment.createListener(new INodeLess(x, new LNodeNum(k)), new INodeStatementList(), true);
+		}
+		DependencyTracker tracker = environment.getDependencyTracker();
+		
+		environment.getListenerNetwork().evaluateStaleConditions(environment, 1);
+		for (WordsEventListener listener : environment.getEventListeners())
+			assertTrue("Every stale condition is evaluated", tracker.isUpToDate(listener.getCondition()));
+		
+		environment.createLocalVariable("x", new Variable(7));
+		for (WordsEventListener listener : environment.getEventListeners())
+			assertFalse("Reads made in parallel are registered", tracker.isUpToDate(listener.getCondition()));
+		
+		environment.getListenerNetwork().evaluateStaleConditions(environment, 1);
+		int k = 0;
+		for (WordsEventListener listener : environment.getEventListeners()) {
+			assertEquals("x < " + k, 7 < k, listener.execute(environment));
+			k++;
+		}
+	}
+	
+	@Test
+	public void listenersWithTheSameSubjectShareAScan() throws WordsRuntimeException, WordsProgramException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		alex.executeNextAction(environment);
+		alex.executeNextAction(environment);
+		
+		List<WordsObject> waiting = environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT);
+		assertSame("Scan is shared until the entry changes", waiting, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT));
+		
+		alex.enqueueAction(new MoveAction(environment.getCurrentScope(), Direction.UP, null));
+		alex.executeNextAction(environment);
+		assertEquals("Shared scan is taken again after the entry changes", 0, environment.getObjectsSnapshotByClass("thing", ActionIndex.Kind.WAIT).size());
+		assertEquals("Earlier scan is not changed", 1, waiting.size());
+	}
 }
@@ -0,0 +1,85 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import words.FrameLog;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestFrameLog {
+	Environment environment = new Environment();
+	String nl = System.lineSeparator();
+
+	private String log(FrameLog log, int frame) {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		PrintStream out = new PrintStream(bytes);
+		log.log(out, frame, environment);
+		out.flush();
+		return bytes.toString();
+	}
+
+	@Test
+	public void cellsAreInOrderOfTheirLabels() throws WordsRuntimeException {
+		environment.createObject("A", "thing", new Position(10,2));
+		environment.createObject("B", "thing", new Position(1,5));
+		environment.createObject("C", "thing", new Position(-3,0));
+		environment.createObject("D", "thing", new Position(-10,0));
+		environment.createObject("E", "thing", new Position(2,-1));
+		environment.createObject("F", "thing", new Position(2,-12));
+
+		assertEquals("frame #: 4" + nl
+				+ "(-10,0):" + nl + "<thing> D" + nl
+				+ "(-3,0):" + nl + "<thing> C" + nl
+				+ "(1,5):" + nl + "<thing> B" + nl
+				+ "(10,2):" + nl + "<thing> A" + nl
+				+ "(2,-1):" + nl + "<thing> E" + nl
+				+ "(2,-12):" + nl + "<thing> F" + nl, log(new FrameLog(), 4));
+	}
+
+	@Test
+	public void objectsInACellAreInOrderOfTheirLines() throws WordsRuntimeException {
+		environment.createClass("person", "thing");
+		environment.createObject("Zed", "thing", new Position(0,0));
+		environment.createObject("Amy", "thing", new Position(0,0));
+		environment.createObject("Al", "person", new Position(1,0));
+		environment.createObject("Bo", "person", new Position(0,0));
+		environment.getVariable("Zed").objProperty.setMessage("hi");
+
+		assertEquals("frame #: 1" + nl
+				+ "(0,0):" + nl + "<person> Bo" + nl + "<thing> Amy" + nl + "<thing> Zed \"hi\"" + nl
+				+ "(1,0):" + nl + "<person> Al" + nl, log(new FrameLog(), 1));
+	}
+
+	@Test
+	public void aReusedLogMatchesSortingByLabel() throws WordsRuntimeException {
+		FrameLog log = new FrameLog();
+		Random random = new Random(42);
+		for (int frame = 1; frame <= 3; frame++) {
+			environment = new Environment();
+			TreeSet<String> labels = new TreeSet<String>();
+			for (int i = 0; i < 200 * frame; i++) {
+				int x = random.nextInt(2001) - 1000;
+				int y = random.nextInt(21) - 10;
+				if (i % 50 == 0)
+					x = i % 100 == 0 ? Integer.MIN_VALUE : Integer.MAX_VALUE;
+				environment.createObject("o" + i, "thing", new Position(x, y));
+				labels.add("(" + x + "," + y + "):");
+			}
+
+			ArrayList<String> logged = new ArrayList<String>();
+			for (String line : log(log, frame).split(nl)) {
+				if (line.startsWith("("))
+					logged.add(line);
+			}
+			assertEquals(new ArrayList<String>(labels), logged);
+		}
+	}
+}
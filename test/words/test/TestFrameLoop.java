@@ -0,0 +1,116 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+import org.junit.Test;
+
+import words.Console;
+import words.FrameLoop;
+import words.Options;
+import words.ast.*;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestFrameLoop {
+	private static final int NUM_OBJECTS = 200;
+	private static final Direction[] DIRECTIONS = { Direction.UP, Direction.LEFT, Direction.DOWN, Direction.RIGHT };
+
+	/**
+	 * Creates a world of objects that move, wait, sit idle or say things, the last of which must not run in parallel.
+	 */
+	private Environment createWorld(Options options) throws WordsRuntimeException {
+		Environment environment = new Environment(options);
+		for (int i = 0; i < NUM_OBJECTS; i++) {
+			WordsObject object = environment.createObject("Object" + i, "thing", new Position(i % 7, i % 5));
+			Scope scope = environment.getCurrentScope();
+			switch (i % 10) {
+			case 0:
+				object.enqueueAction(new SayAction(scope, new LNodeString("hello")));
+				break;
+			case 1:
+				object.enqueueAction(new WaitAction(scope, new LNodeNum(2)));
+				break;
+			case 2:
+				break;
+			default:
+				object.enqueueAction(new MoveAction(scope, DIRECTIONS[i % 4], new LNodeNum(i % 3)));
+				object.enqueueAction(new MoveAction(scope, DIRECTIONS[(i + 1) % 4], null));
+			}
+		}
+		return environment;
+	}
+
+	@Test
+	public void parallelActionsMatchSequentialActions() throws WordsRuntimeException {
+		Options sequentialOptions = new Options();
+		sequentialOptions.parallel = false;
+		Environment sequential = createWorld(sequentialOptions);
+		new FrameLoop(sequential).fastForwardEnvironment(5);
+
+		Options parallelOptions = new Options();
+		parallelOptions.parallelThreshold = 2;
+		Environment parallel = createWorld(parallelOptions);
+		new FrameLoop(parallel).fastForwardEnvironment(5);
+
+		ArrayList<WordsObject> expected = sequential.getObjectsSnapshot();
+		ArrayList<WordsObject> actual = parallel.getObjectsSnapshot();
+		for (int i = 0; i < NUM_OBJECTS; i++) {
+			assertEquals(expected.get(i).getCurrentPosition(), actual.get(i).getCurrentPosition());
+			assertEquals(expected.get(i).getCurrentMessage(), actual.get(i).getCurrentMessage());
+			assertEquals(expected.get(i).getLastAction().getClass(), actual.get(i).getLastAction().getClass());
+		}
+
+		for (int x = 0; x < 7; x++) {
+			for (int y = -5; y < 10; y++) {
+				assertEquals("Cells list their objects in the same order", names(sequential.getSpatialIndex().getObjectsAt(x, y)),
+						names(parallel.getSpatialIndex().getObjectsAt(x, y)));
+			}
+		}
+
+		for (ActionIndex.Kind kind : ActionIndex.Kind.values()) {
+			assertEquals(names(sequential.getObjectsSnapshotByClass("thing", kind)), names(parallel.getObjectsSnapshotByClass("thing", kind)));
+		}
+	}
+
+	@Test
+	public void exitEndsOnlyItsOwnWorld() throws WordsRuntimeException {
+		Options options = new Options();
+		options.frameLimitEnabled = true;
+		options.maxFrames = 3;
+		options.timeToWait = -1;
+
+		Environment exiting = new Environment(options);
+		ByteArrayOutputStream exitingLog = new ByteArrayOutputStream();
+		exiting.setConsole(new Console(options, new PrintStream(exitingLog), new PrintStream(new ByteArrayOutputStream())));
+		FrameLoop exitingLoop = new FrameLoop(exiting);
+		exitingLoop.enqueueAST(new INodeStatementList(new INodeExit()));
+
+		Environment running = new Environment(options);
+		ByteArrayOutputStream runningLog = new ByteArrayOutputStream();
+		running.setConsole(new Console(options, new PrintStream(runningLog), new PrintStream(new ByteArrayOutputStream())));
+		running.createObject("Alex", "thing", new Position(0,0));
+		FrameLoop runningLoop = new FrameLoop(running);
+
+		exitingLoop.run();
+		runningLoop.run();
+
+		assertTrue(exitingLoop.hasExited());
+		assertEquals("", exitingLog.toString());
+		assertFalse(runningLoop.hasExited());
+		assertEquals(3, runningLoop.getStatistics().getFrames());
+		assertTrue(runningLog.toString().startsWith("frame #: 1"));
+		assertTrue(runningLog.toString().contains("frame #: 3"));
+	}
+
+	private static ArrayList<String> names(Iterable<WordsObject> objects) {
+		ArrayList<String> names = new ArrayList<String>();
+		for (WordsObject object : objects) {
+			names.add(object.getObjectName());
+		}
+		return names;
+	}
+}
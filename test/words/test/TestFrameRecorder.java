@@ -0,0 +1,53 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import words.FrameLoop;
+import words.FrameRecorder;
+import words.Options;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestFrameRecorder {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	@Test
+	public void everyNthFrameIsWrittenAsPng() throws WordsRuntimeException, IOException {
+		Options options = new Options();
+		options.frameLimitEnabled = true;
+		options.maxFrames = 6;
+		options.timeToWait = -1;
+		Environment environment = new Environment(options);
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		alex.setMessage("hi");
+
+		FrameRecorder recorder = new FrameRecorder(folder.getRoot(), 2);
+		FrameLoop loop = new FrameLoop(environment);
+		loop.setRecorder(recorder);
+		loop.run();
+
+		assertNull(recorder.getError());
+		assertEquals(3 - recorder.getDropped(), recorder.getWritten());
+		for (int frame = 1; frame <= 6; frame++) {
+			File file = recorder.fileFor(frame);
+			if (frame % 2 == 1) {
+				assertFalse(file.exists());
+			} else if (recorder.getDropped() == 0) {
+				BufferedImage image = ImageIO.read(file);
+				assertEquals(750, image.getWidth());
+				assertEquals(0xFFFFFF, image.getRGB(375, 100) & 0xFFFFFF);		// The board is drawn
+			}
+		}
+	}
+}
@@ -0,0 +1,60 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import words.FrameScheduler;
+
+public class TestFrameScheduler {
+	// A period of 10 ns keeps the arithmetic readable; the scheduler never looks at the clock unless it is waiting
+	FrameScheduler scheduler = new FrameScheduler(10, 2);
+
+	@Test
+	public void executionTimeIsTakenOutOfTheWait() {
+		scheduler.start(0);
+		assertEquals(10, scheduler.getDelay(0));
+
+		scheduler.frameStarted(10);
+		assertEquals("A frame that took 4 ns to execute waits 6 ns for the next", 6, scheduler.getDelay(14));
+
+		scheduler.frameStarted(21);
+		assertEquals("Deadlines stay on the grid when a frame starts late", 9, scheduler.getDelay(21));
+	}
+
+	@Test
+	public void lateFramesCatchUp() {
+		scheduler.start(0);
+		scheduler.frameStarted(10);
+		scheduler.frameStarted(35);
+		assertEquals("The frame due at 30 runs at once", 0, scheduler.getDelay(35));
+		scheduler.frameStarted(36);
+		assertEquals("Back on the grid", 4, scheduler.getDelay(36));
+		assertEquals(0, scheduler.getSkippedFrames());
+	}
+
+	@Test
+	public void framesTooFarBehindAreSkipped() {
+		scheduler.start(0);
+		scheduler.frameStarted(10);
+		scheduler.frameStarted(65);
+		assertEquals("The frame due at 20 runs late and those due at 30 to 60 are skipped", 4, scheduler.getSkippedFrames());
+		assertEquals(5, scheduler.getDelay(65));
+	}
+
+	@Test
+	public void statisticsReportAchievedRateAndJitter() {
+		FrameScheduler scheduler = new FrameScheduler(10000000, 2);
+		scheduler.start(0);
+		scheduler.frameStarted(10000000);
+		scheduler.frameStarted(22000000);
+		scheduler.frameStarted(30000000);
+
+		assertEquals(100, scheduler.getTargetFrameRate(), 1e-9);
+		assertEquals(100, scheduler.getAchievedFrameRate(), 1e-9);
+		assertEquals("Intervals of 12 ms and 8 ms", 2, scheduler.getJitterMillis(), 1e-9);
+
+		scheduler.report();
+		assertEquals("Report starts new statistics", 0, scheduler.getJitterMillis(), 1e-9);
+	}
+}
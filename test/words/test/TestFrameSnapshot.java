@@ -0,0 +1,92 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import words.FrameSnapshot;
+import words.Viewport;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestFrameSnapshot {
+	Environment environment = new Environment();
+
+	@Test
+	public void objectsAreGroupedByCellInWorldOrder() throws WordsRuntimeException {
+		environment.createObject("Alex", "thing", new Position(1,0));
+		environment.createObject("Bo", "thing", new Position(0,2));
+		environment.createObject("Cy", "thing", new Position(1,0));
+		environment.getVariable("Cy").objProperty.setMessage("hi");
+
+		FrameSnapshot snapshot = FrameSnapshot.capture(7, environment.getObjects());
+		assertEquals(7, snapshot.getFrame());
+		assertEquals(3, snapshot.size());
+
+		int first = snapshot.firstAt(1, 0);
+		assertEquals(2, snapshot.countAt(first, 1, 0));
+		assertEquals("Alex", snapshot.getObjectName(first));
+		assertEquals("Cy", snapshot.getObjectName(first + 1));
+		assertNull(snapshot.getMessage(first));
+		assertEquals("hi", snapshot.getMessage(first + 1));
+		assertEquals("thing", snapshot.getClassName(first));
+
+		assertEquals(1, snapshot.countAt(snapshot.firstAt(0, 2), 0, 2));
+		assertEquals(0, snapshot.countAt(snapshot.firstAt(0, 1), 0, 1));
+	}
+
+	@Test
+	public void snapshotDoesNotChangeWithTheWorld() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		FrameSnapshot snapshot = FrameSnapshot.capture(1, environment.getObjects());
+
+		alex.moveUp();
+		environment.createObject("Bo", "thing", new Position(0,0));
+
+		assertEquals(1, snapshot.size());
+		assertEquals(0, snapshot.getY(0));
+	}
+
+	@Test
+	public void changedCellsAreThoseWhoseObjectsDiffer() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		WordsObject bo = environment.createObject("Bo", "thing", new Position(2,2));
+		environment.createObject("Cy", "thing", new Position(5,5));
+		FrameSnapshot previous = FrameSnapshot.capture(1, environment.getObjects());
+
+		alex.moveUp();
+		bo.setMessage("hi");
+		FrameSnapshot current = FrameSnapshot.capture(2, environment.getObjects());
+
+		assertEquals(Arrays.asList(new Position(0,0), new Position(0,1), new Position(2,2)), current.changedCells(previous));
+		assertTrue(current.changedCells(current).isEmpty());
+	}
+
+	@Test
+	public void viewportCaptureMatchesFullCaptureInView() throws WordsRuntimeException {
+		for (int i = 0; i < 60; i++) {
+			environment.createObject("Object" + i, "thing", new Position(i % 11 - 5, i % 7 - 3));
+		}
+		for (int i = 0; i < 60; i += 3) {
+			environment.getVariable("Object" + i).objProperty.moveLeft();
+		}
+		Viewport viewport = Viewport.around(1, 0, 5, 1);
+
+		FrameSnapshot full = FrameSnapshot.capture(1, environment.getObjects());
+		FrameSnapshot culled = FrameSnapshot.capture(1, environment, viewport);
+
+		int visible = 0;
+		for (int i = 0; i < full.size(); i++) {
+			if (viewport.contains(full.getX(i), full.getY(i))) {
+				assertEquals(full.getObjectName(i), culled.getObjectName(visible));
+				assertEquals(full.getX(i), culled.getX(visible));
+				assertEquals(full.getY(i), culled.getY(visible));
+				visible++;
+			}
+		}
+		assertEquals(visible, culled.size());
+		assertTrue(visible > 0 && visible < full.size());
+	}
+}
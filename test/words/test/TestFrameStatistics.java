@@ -0,0 +1,48 @@
+package words.test;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+import words.FrameLoop;
+import words.FrameStatistics;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestFrameStatistics {
+	Environment environment = new Environment();
+
+	@Test
+	public void countsAccumulateOverFrames() {
+		FrameStatistics statistics = new FrameStatistics();
+		statistics.frameExecuted(10, 4, 1);
+		statistics.frameExecuted(20, 6, 0);
+
+		assertEquals(2, statistics.getFrames());
+		assertEquals(15, statistics.getObjectsPerFrame(), 1e-9);
+		assertEquals(10, statistics.getActions());
+		assertEquals(1, statistics.getListenerFires());
+	}
+
+	@Test
+	public void throughputIsMeasuredFromStart() {
+		FrameStatistics statistics = new FrameStatistics(0);
+		statistics.frameExecuted(1, 0, 0);
+		statistics.start(1000000000L);
+
+		assertTrue(statistics.report(1500000000L).startsWith("1 frames in 0.500 s: 2.0 frames/s"));
+	}
+
+	@Test
+	public void frameLoopCountsPerformedActions() throws WordsRuntimeException {
+		WordsObject alex = environment.createObject("Alex", "thing", new Position(0,0));
+		alex.enqueueAction(new MoveAction(environment.getCurrentScope(), Direction.UP, null));
+		FrameLoop loop = new FrameLoop(environment);
+
+		// The first frame is skipped by the new object and the queued move is performed in the second
+		loop.fastForwardEnvironment(3);
+		assertEquals(3, loop.getStatistics().getFrames());
+		assertEquals(1, loop.getStatistics().getActions());
+		assertEquals(1, loop.getStatistics().getObjectsPerFrame(), 1e-9);
+	}
+}
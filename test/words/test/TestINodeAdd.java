@@ -5,6 +5,7 @@ import org.junit.Test;
 
 import words.ast.*;
 import words.environment.Position;
+import words.environment.Variable;
 import words.exceptions.*;
 
 public class TestINodeAdd extends TestINode {
@@ -75,4 +76,46 @@ public class TestINodeAdd extends TestINode {
 		assertTrue("Returns NUM value", result.type == ASTValue.Type.NUM);
 		assertEquals("Correct number value", result.numValue, 5.0, 0.0001);
 	}
-}
+	
+	@Test
+	public void compiledAdditionMatchesEvaluation() throws WordsRuntimeException {
+		INode numberNode = new INodeAdd(new LNodeNum(6), new LNodeString("7"));
+		INode stringNode = new INodeAdd(new LNodeString("a"), new LNodeNum(1));
+		
+		ASTValue numberResult = numberNode.getExecutable().execute(environment, null);
+		ASTValue stringResult = stringNode.getExecutable().execute(environment, null);
+		assertEquals("Compiled addition of numbers", numberNode.eval(environment).numValue, numberResult.numValue, 0.0001);
+		assertEquals("Compiled concatenation", stringNode.eval(environment).stringValue, stringResult.stringValue);
+	}
+	
+	
+	@Test
+	public void numericAdditionFallsBackForNonNumbers() throws WordsRuntimeException {
+		AST retrieveX = new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x"));
+		INode testNode = new INodeAdd(retrieveX, new LNodeNum(1));
+		assertNotNull("Adding a variable to a number has a numeric form", testNode.getNumExecutable());
+		
+		environment.createLocalVariable("x", new Variable(2));
+		assertEquals("Numeric form adds numbers", 3, testNode.getNumExecutable().execute(environment), 0.0001);
+		
+		environment.createLocalVariable("y", new Variable("a"));
+		INode concatenation = new INodeAdd(new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("y")), new LNodeNum(1));
+		ASTValue result = concatenation.getExecutable().execute(environment, null);
+		assertEquals("Falls back to concatenation for a string", concatenation.eval(environment).stringValue, result.stringValue);
+	}
+	
+	
+	@Test
+	public void specializedAdditionDeoptimizesWhenTypesChange() throws WordsRuntimeException {
+		AST retrieveX = new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x"));
+		INode testNode = new INodeAdd(retrieveX, new LNodeString("b"));
+		Executable compiled = testNode.getExecutable();
+		
+		// Concatenation of a string, then of a number, then a numeric string that must be coerced after all
+		Variable[] values = {new Variable("a"), new Variable(5), new Variable("3")};
+		for (Variable value : values) {
+			environment.getCurrentScope().put("x", value);
+			assertEquals("Compiled addition matches evaluation", testNode.eval(environment).stringValue, compiled.execute(environment, null).stringValue);
+		}
+	}
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import org.junit.Test;
 
 import words.ast.*;
+import words.environment.Variable;
 import words.exceptions.*;
 
 
@@ -116,4 +117,18 @@ public class TestINodeEquals extends TestINode {
 		assertEquals("Creates a boolean", result.type, ASTValue.Type.BOOLEAN);
 		assertFalse("Result is false", result.booleanValue);
 	}
-}
+	
+	
+	@Test
+	public void specializedEqualityDeoptimizesWhenTypesChange() throws WordsRuntimeException {
+		AST retrieveX = new INodeRetrieveProperty(new INodeReferenceList(), new LNodeIdentifier("x"));
+		INode testNode = new INodeEquals(retrieveX, new LNodeString("5"));
+		
+		environment.getCurrentScope().put("x", new Variable("5"));
+		assertTrue("Strings compare as strings", testNode.getBooleanExecutable().execute(environment));
+		environment.getCurrentScope().put("x", new Variable("5.0"));
+		assertFalse("Strings are not coerced to numbers", testNode.getBooleanExecutable().execute(environment));
+		environment.getCurrentScope().put("x", new Variable(5));
+		assertTrue("Number is compared to the coerced string", testNode.getBooleanExecutable().execute(environment));
+	}
+}
\ No newline at end of file
@@ -57,4 +57,15 @@ public class TestINodeLess extends TestINode {
 		INode testNode = new INodeLess(numLeaf, stringLeaf);
 		testNode.eval(environment);
 	}
-}
+	
+	
+	@Test
+	public void compiledComparisonMatchesEvaluation() throws WordsRuntimeException {
+		INode numberNode = new INodeLess(new LNodeNum(1.4), new LNodeNum(4.7));
+		INode stringNode = new INodeLess(new LNodeString("b"), new LNodeString("a"));
+		
+		assertTrue("Numbers compare without boxing", numberNode.getBooleanExecutable().execute(environment));
+		assertFalse("Strings compare through the ordinary form", stringNode.getBooleanExecutable().execute(environment));
+		assertTrue("Compiled value is boxed when needed", numberNode.getExecutable().execute(environment, null).booleanValue);
+	}
+}
\ No newline at end of file
@@ -82,6 +82,17 @@ public class TestINodeRetrieveProperty extends TestINode {
 		ASTValue result = retrieveError.eval(environment);
 		assertEquals("Variable lookup found NOTHING", result.type, ASTValue.Type.NOTHING);
 	}
-
-
-}
+	
+	@Test
+	public void compiledRetrievalResolvesNamesOnce() throws WordsRuntimeException {
+		WordsObject alexObject = environment.createObject("Alex", "thing", new Position(0,0));
+		WordsObject bobObject = environment.createObject("Bob", "thing", new Position(0, 0));
+		INodeRetrieveProperty retrieveAlexFriend = new INodeRetrieveProperty(new INodeReferenceList(new LNodeReference("Alex's")), new LNodeIdentifier("friend"));
+		Executable compiled = retrieveAlexFriend.getExecutable();
+		
+		assertEquals("Missing property is nothing", ASTValue.Type.NOTHING, compiled.execute(environment, null).type);
+		alexObject.setProperty("friend", new Variable(bobObject));
+		assertEquals("Compiled form sees later assignments", bobObject, compiled.execute(environment, null).objValue);
+		assertSame("Compiled form is cached", compiled, retrieveAlexFriend.getExecutable());
+	}
+}
\ No newline at end of file
@@ -1,7 +1,14 @@
 package words.test;
 
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+
 import org.junit.Test;
 
+import words.FrameLoop;
+import words.Options;
+import words.ast.*;
 import words.environment.*;
 import words.exceptions.*;
 
@@ -21,5 +28,49 @@ public class TestMoveAction extends TestINode {
         Action action2 = new MoveAction(environment.getCurrentScope(), Direction.LEFT, trueLeaf);
         action2.expand(environment.getVariable("Fred").objProperty, environment);
     }
+	
+    @Test
+    public void longMoveShouldExpandToOneRepeatedAction() throws WordsRuntimeException, WordsProgramException {
+        environment.createObject("Fred", "thing", new Position(0, 0));
+        WordsObject fred = environment.getVariable("Fred").objProperty;
+        fred.enqueueAction(new MoveAction(environment.getCurrentScope(), Direction.LEFT, new LNodeNum(100000)));
+        
+        // Use up the fake wait that exists on new objects
+        fred.executeNextAction(environment);
+        
+        fred.executeNextAction(environment);
+        Action lastAction = fred.getLastAction();
+        assertTrue("Last action is a move", lastAction instanceof MoveAction);
+        assertEquals("Remaining moves are counted in place", 99999, lastAction.getRepetitions());
+        
+        for (int i = 0; i < 99999; i++)
+            fred.executeNextAction(environment);
+        assertEquals("Object moved the whole distance", -100000, fred.getCurrentPosition().x);
+        
+        fred.executeNextAction(environment);
+        assertTrue("Object waits once the move is done", fred.getLastAction() instanceof WaitAction);
+        assertEquals("Object did not move further", -100000, fred.getCurrentPosition().x);
+    }
 
+    @Test
+    public void seededWorldsMoveAnywhereAlike() throws WordsRuntimeException {
+        Options options = new Options();
+        options.seed = 42L;
+        assertEquals(anywherePath(new Environment(options)), anywherePath(new Environment(options)));
+    }
+
+    /**
+     * Moves Fred anywhere several times and returns the positions he passes through.
+     */
+    private ArrayList<Position> anywherePath(Environment world) throws WordsRuntimeException {
+        world.createObject("Fred", "thing", new Position(0, 0));
+        FrameLoop loop = new FrameLoop(world);
+        ArrayList<Position> path = new ArrayList<Position>();
+        for (int i = 0; i < 10; i++) {
+            loop.enqueueAST(moveFredAnywhere2);
+            loop.fastForwardEnvironment(2);
+            path.add(world.getVariable("Fred").objProperty.getCurrentPosition());
+        }
+        return path;
+    }
 }
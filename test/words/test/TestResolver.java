@@ -0,0 +1,91 @@
+package words.test;
+import static org.junit.Assert.*;
+
+import java.util.LinkedList;
+
+import org.junit.Test;
+
+import words.ast.*;
+import words.environment.*;
+import words.exceptions.*;
+
+public class TestResolver extends TestINode {
+	AST xLeaf = new LNodeIdentifier("x");
+	AST yLeaf = new LNodeIdentifier("y");
+	AST retrieveX = new INodeRetrieveProperty(new INodeReferenceList(), xLeaf);
+	AST retrieveY = new INodeRetrieveProperty(new INodeReferenceList(), yLeaf);
+	
+	@Test
+	public void blocksAreLaidOutWithTheirDeclarations() {
+		INodeStatementList inner = new INodeStatementList(new INodeCreateLocalVariable(yLeaf, twoLeaf));
+		INodeStatementList outer = new INodeStatementList(new INodeCreateLocalVariable(xLeaf, twoLeaf), new INodeIf(trueLeaf, inner));
+		Resolver.resolve(new INodeRepeat(fiveLeaf, outer));
+		
+		assertEquals("Outer block holds only its own declaration", 1, outer.getScopeLayout().size());
+		assertEquals("Outer block declares x", 0, outer.getScopeLayout().getSlot("x"));
+		assertEquals("Inner block declares y", 0, inner.getScopeLayout().getSlot("y"));
+		assertEquals("Inner block does not declare x", -1, inner.getScopeLayout().getSlot("x"));
+	}
+	
+	@Test
+	public void blockWithoutDeclarationsNeedsNoScope() throws WordsRuntimeException {
+		INodeStatementList body = new INodeStatementList(moveFredLeft2);
+		environment.createObject("Fred", "thing", new Position(0,0));
+		loop.enqueueAST(new INodeRepeat(twoLeaf, body));
+		loop.fastForwardEnvironment(6);
+		
+		assertEquals("Block is laid out with no slots", 0, body.getScopeLayout().size());
+		assertEquals("Both moves were made", new Position(-4,0), environment.getVariable("Fred").objProperty.getCurrentPosition());
+		assertEquals("Ends in global scope", 1, environment.getScopeDepth());
+	}
+	
+	@Test
+	public void declaringExistingVariableAssignsToIt() throws WordsRuntimeException {
+		environment.createLocalVariable("x", new Variable(1));
+		AST increment = new INodeCreateLocalVariable(xLeaf, new INodeAdd(retrieveX, new LNodeNum(1)));
+		AST copy = new INodeCreateLocalVariable(yLeaf, retrieveX);
+		loop.enqueueAST(new INodeRepeat(new LNodeNum(3), new INodeStatementList(increment, copy)));
+		loop.fastForwardEnvironment(1);
+		
+		assertEquals("Global variable was incremented in place", 4, environment.getVariable("x").numProperty, 0.0001);
+		assertEquals("Local variable does not escape its block", Variable.VariableType.NOTHING, environment.getVariable("y").type);
+	}
+	
+	@Test
+	public void nestedBlocksSeeEnclosingLocals() throws WordsRuntimeException {
+		environment.createObject("Fred", "thing", new Position(0,0));
+		AST moveFredLeftY = new INodeQueueMove(nothingLeaf, fredStringLeaf, leftDirectionLeaf, retrieveY, null);
+		INodeStatementList inner = new INodeStatementList(new INodeCreateLocalVariable(yLeaf, new INodeAdd(retrieveY, retrieveY)), moveFredLeftY);
+		INodeStatementList outer = new INodeStatementList(new INodeCreateLocalVariable(yLeaf, fiveLeaf), new INodeIf(trueLeaf, inner));
+		loop.enqueueAST(new INodeIf(trueLeaf, outer));
+		loop.fastForwardEnvironment(15);
+		
+		assertEquals("Inner block updated the enclosing local", new Position(-10,0), environment.getVariable("Fred").objProperty.getCurrentPosition());
+	}
+	
+	
+	@Test
+	public void pronounsResolveToTheReceiverOfACustomAction() throws WordsRuntimeException, WordsProgramException {
+		WordsObject fred = environment.createObject("Fred", "thing", new Position(0,0));
+		AST moveItLeftX = new INodeQueueMove(nothingLeaf, new LNodeIdentifier("it"), leftDirectionLeaf, retrieveX, null);
+		INodeStatementList body = new INodeStatementList(moveItLeftX);
+		Resolver.resolve(new INodeDefineCustomAction(new LNodeIdentifier("scoot"), new INodeParameterList(new INodeParameter(xLeaf)), body));
+		
+		assertEquals("Only the parameter is laid out", 1, body.getScopeLayout().size());
+		assertTrue("Pronouns live in the receiver", body.getScopeLayout().hasReceiver());
+		
+		CustomActionDefinition definition = new CustomActionDefinition(body);
+		definition.addParameter("x");
+		Scope arguments = new Scope(null);
+		arguments.put("x", new Variable(3));
+		
+		fred.startExpandingCustomAction();
+		definition.invoke(environment, fred, arguments);
+		LinkedList<Action> expansion = fred.finishExpandingCustomAction();
+		
+		assertEquals("The pronoun named the receiver", 1, expansion.size());
+		expansion.getFirst().expand(fred, environment).getFirst().execute(fred, environment);
+		assertEquals("The argument was bound to the parameter", new Position(-1,0), fred.getCurrentPosition());
+		assertEquals("Ends in global scope", 1, environment.getScopeDepth());
+	}
+}
\ No newline at end of file
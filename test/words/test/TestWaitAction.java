@@ -1,5 +1,9 @@
 package words.test;
 
+import static org.junit.Assert.*;
+
+import java.util.LinkedList;
+
 import org.junit.Test;
 
 import words.ast.*;
@@ -39,5 +43,15 @@ public class TestWaitAction extends TestINode {
         Action action2 = new WaitAction(environment.getCurrentScope(), trueLeaf);
         action2.expand(environment.getVariable("Fred").objProperty, environment);
     }
-
-}
+	
+    @Test
+    public void longWaitShouldExpandToOneRepeatedAction() throws WordsRuntimeException, WordsProgramException {
+        environment.createObject("Fred", "thing", new Position(0, 0));
+        WordsObject fred = environment.getVariable("Fred").objProperty;
+        Action action = new WaitAction(environment.getCurrentScope(), new LNodeNum(1000000));
+        
+        LinkedList<Action> expansion = action.expand(fred, environment);
+        assertEquals("Wait expands to a single action", 1, expansion.size());
+        assertEquals("Expanded wait lasts the whole length", 1000000, expansion.getFirst().getRepetitions());
+    }
+}
\ No newline at end of file
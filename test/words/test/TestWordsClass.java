@@ -79,4 +79,18 @@ public class TestWordsClass {
 		assertEquals("Grandchild retrieved its own property, overriding inheritance", grandchildProperty, grandchildClass.getProperty(propertyName));
 		assertNotSame("Grandchild did not retrieve parent property", grandchildClass.getProperty(propertyName), parentClass.getProperty(propertyName));
 	}
-}
+	
+	
+	@Test
+	public void inheritedPropertyShouldReflectLaterDefinition() {
+		WordsClass parentClass = new WordsClass("parent", null);
+		WordsClass childClass = new WordsClass("child", parentClass);
+		
+		String propertyName = "height";
+		assertEquals("Child retrieved NOTHING before definition", Variable.VariableType.NOTHING, childClass.getProperty(propertyName).type);
+		
+		Variable numProperty = new Variable(15.5);
+		parentClass.setProperty(propertyName, numProperty);
+		assertEquals("Child sees the property defined after the first lookup", numProperty, childClass.getProperty(propertyName));
+	}
+}
\ No newline at end of file
@@ -218,4 +218,63 @@ public class TestWordsObject {
 	public void getClassOfObject() throws WordsRuntimeException {
 		assertEquals("Class name is retrieved and correct", "thing", obj.getProperty("class").stringProperty);
 	}
-}
+	
+	
+	@Test
+	public void objectsGivenTheSamePropertiesShouldShareAShape() throws WordsRuntimeException {
+		WordsObject other = new WordsObject("other", thing, new Position(0, 0));
+		obj.setProperty("height", new Variable(1));
+		obj.setProperty("weight", new Variable(2));
+		other.setProperty("height", new Variable(3));
+		other.setProperty("weight", new Variable(4));
+		
+		assertSame("Objects share a shape", obj.getShape(), other.getShape());
+		assertEquals("Shape has both properties", 2, obj.getShape().size());
+	}
+	
+	@Test
+	public void removingPropertyShouldKeepTheOthers() throws WordsRuntimeException {
+		obj.setProperty("height", new Variable(1));
+		obj.setProperty("weight", new Variable(2));
+		obj.setProperty("width", new Variable(3));
+		obj.setProperty("weight", new Variable(Variable.VariableType.NOTHING));
+		
+		assertEquals("Shape lost the removed property", 2, obj.getShape().size());
+		assertEquals("Earlier property kept", 1, obj.getProperty("height").numProperty, 0.0);
+		assertEquals("Later property kept", 3, obj.getProperty("width").numProperty, 0.0);
+		assertEquals("Removed property is NOTHING", Variable.VariableType.NOTHING, obj.getProperty("weight").type);
+	}
+	
+	@Test
+	public void propertyCacheShouldFollowShapeChanges() throws WordsRuntimeException {
+		PropertyCache cache = new PropertyCache("weight");
+		WordsObject other = new WordsObject("other", thing, new Position(0, 0));
+		obj.setProperty("weight", new Variable(2));
+		other.setProperty("height", new Variable(1));
+		other.setProperty("weight", new Variable(5));
+		
+		assertEquals("Cached lookup on first shape", 2, obj.getProperty(cache).numProperty, 0.0);
+		assertEquals("Cached lookup on second shape", 5, other.getProperty(cache).numProperty, 0.0);
+		
+		obj.setProperty(cache, new Variable(7));
+		assertEquals("Cached assignment", 7, obj.getProperty("weight").numProperty, 0.0);
+		
+		thing.setProperty("weight", new Variable(9));
+		obj.setProperty(cache, new Variable(Variable.VariableType.NOTHING));
+		assertEquals("Cached lookup falls back to class", 9, obj.getProperty(cache).numProperty, 0.0);
+	}
+	
+	
+	@Test
+	public void idleFramesShouldShareTheIdleWait() throws WordsProgramException {
+		// First use up the fake wait that exists on new objects
+		obj.executeNextAction(environment);
+		
+		obj.executeNextAction(environment);
+		Action firstIdle = obj.getLastAction();
+		obj.executeNextAction(environment);
+		
+		assertSame("Idle object waits with the shared idle action", WaitAction.IDLE, firstIdle);
+		assertSame("Later idle frames reuse the same action", firstIdle, obj.getLastAction());
+	}
+}
\ No newline at end of file